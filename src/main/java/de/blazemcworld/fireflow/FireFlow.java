@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow;
 
 import de.blazemcworld.fireflow.commands.*;
+import de.blazemcworld.fireflow.evaluation.CpuScheduler;
 import de.blazemcworld.fireflow.network.ApiServer;
 import de.blazemcworld.fireflow.network.RemoteInfo;
 import de.blazemcworld.fireflow.node.NodeList;
@@ -37,6 +38,7 @@ public class FireFlow {
         MojangAuth.init();
         ConsoleHandler.init();
         SpacesIndex.init();
+        CpuScheduler.init();
 
         LOGGER.info("Found {} nodes!", NodeList.nodes.size());
 
@@ -18,8 +18,13 @@ public class ReloadCommand extends Command {
                     sender.sendMessage(Messages.error("You must be in a space to do this!"));
                     return;
                 }
-                space.reload();
-                sender.sendMessage(Messages.success("Reloaded!"));
+                space.reload().whenComplete((ignored, err) -> {
+                    if (err != null) {
+                        sender.sendMessage(Messages.error("Failed to compile space code!"));
+                        return;
+                    }
+                    sender.sendMessage(Messages.success("Reloaded!"));
+                });
             }
         });
     }
@@ -0,0 +1,78 @@
+package de.blazemcworld.fireflow.compiler;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import java.util.*;
+
+public class BranchPruner {
+
+    public static void prune(MethodNode method) {
+        foldJumps(method.instructions);
+        if (method.tryCatchBlocks != null && !method.tryCatchBlocks.isEmpty()) return;
+        removeUnreachable(method.instructions);
+    }
+
+    private static void foldJumps(InsnList insns) {
+        for (AbstractInsnNode insn : insns.toArray()) {
+            if (!(insn instanceof JumpInsnNode jump)) continue;
+            if (jump.getOpcode() != Opcodes.IFEQ && jump.getOpcode() != Opcodes.IFNE) continue;
+            Integer value = constantInt(jump.getPrevious());
+            if (value == null) continue;
+
+            insns.remove(jump.getPrevious());
+            boolean taken = jump.getOpcode() == Opcodes.IFEQ ? value == 0 : value != 0;
+            if (taken) {
+                insns.set(jump, new JumpInsnNode(Opcodes.GOTO, jump.label));
+            } else {
+                insns.remove(jump);
+            }
+        }
+    }
+
+    private static Integer constantInt(AbstractInsnNode insn) {
+        if (insn == null) return null;
+        int op = insn.getOpcode();
+        if (op >= Opcodes.ICONST_M1 && op <= Opcodes.ICONST_5) return op - Opcodes.ICONST_0;
+        if (insn instanceof IntInsnNode i && (op == Opcodes.BIPUSH || op == Opcodes.SIPUSH)) return i.operand;
+        if (insn instanceof LdcInsnNode ldc) {
+            if (ldc.cst instanceof Integer i) return i;
+            if (ldc.cst instanceof Boolean b) return b ? 1 : 0;
+        }
+        return null;
+    }
+
+    private static void removeUnreachable(InsnList insns) {
+        if (insns.size() == 0) return;
+        Set<AbstractInsnNode> reached = new HashSet<>();
+        Deque<AbstractInsnNode> todo = new ArrayDeque<>();
+        todo.push(insns.getFirst());
+
+        while (!todo.isEmpty()) {
+            AbstractInsnNode insn = todo.pop();
+            while (insn != null && reached.add(insn)) {
+                int op = insn.getOpcode();
+                if (insn instanceof JumpInsnNode jump) {
+                    todo.push(jump.label);
+                    if (op == Opcodes.GOTO) break;
+                } else if (insn instanceof TableSwitchInsnNode table) {
+                    todo.push(table.dflt);
+                    table.labels.forEach(todo::push);
+                    break;
+                } else if (insn instanceof LookupSwitchInsnNode lookup) {
+                    todo.push(lookup.dflt);
+                    lookup.labels.forEach(todo::push);
+                    break;
+                } else if ((op >= Opcodes.IRETURN && op <= Opcodes.RETURN) || op == Opcodes.ATHROW) {
+                    break;
+                }
+                insn = insn.getNext();
+            }
+        }
+
+        for (AbstractInsnNode insn : insns.toArray()) {
+            if (reached.contains(insn) || insn instanceof LabelNode) continue;
+            insns.remove(insn);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.blazemcworld.fireflow.compiler;
+
+import de.blazemcworld.fireflow.FireFlow;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public record BytecodeCache(List<String> locals, List<String> space, List<String> persistent, Map<String, Partition> partitions) {
+
+    private static final String FORMAT = "partitions";
+
+    public static BytecodeCache read(Path path) {
+        if (!Files.exists(path)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            long size = Files.size(path);
+            if (!in.readUTF().equals(FORMAT) || in.readInt() != NodeCompiler.VERSION) return null;
+            List<String> locals = readNames(in, size);
+            List<String> space = readNames(in, size);
+            List<String> persistent = readNames(in, size);
+            Map<String, Partition> partitions = new HashMap<>();
+            for (int count = readLength(in, size); count > 0; count--) {
+                String key = in.readUTF();
+                List<Integer> trace = new ArrayList<>();
+                for (int i = readLength(in, size); i > 0; i--) trace.add(in.readInt());
+                byte[] bytes = new byte[readLength(in, size)];
+                in.readFully(bytes);
+                partitions.put(key, new Partition(trace, bytes));
+            }
+            return new BytecodeCache(locals, space, persistent, partitions);
+        } catch (IOException | RuntimeException err) {
+            FireFlow.LOGGER.warn("Failed to read bytecode cache!", err);
+            return null;
+        }
+    }
+
+    public void write(Path path) {
+        try {
+            if (!Files.exists(path.getParent())) Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                out.writeUTF(FORMAT);
+                out.writeInt(NodeCompiler.VERSION);
+                writeNames(out, locals);
+                writeNames(out, space);
+                writeNames(out, persistent);
+                out.writeInt(partitions.size());
+                for (Map.Entry<String, Partition> entry : partitions.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().trace().size());
+                    for (int each : entry.getValue().trace()) out.writeInt(each);
+                    out.writeInt(entry.getValue().bytes().length);
+                    out.write(entry.getValue().bytes());
+                }
+            }
+        } catch (IOException err) {
+            FireFlow.LOGGER.warn("Failed to write bytecode cache!", err);
+        }
+    }
+
+    private static List<String> readNames(DataInputStream in, long size) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (int i = readLength(in, size); i > 0; i--) names.add(in.readUTF());
+        return names;
+    }
+
+    private static int readLength(DataInputStream in, long size) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > size) throw new IOException("Invalid length " + length + " in bytecode cache!");
+        return length;
+    }
+
+    private static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) out.writeUTF(name);
+    }
+
+    public record Partition(List<Integer> trace, byte[] bytes) {}
+}
@@ -0,0 +1,132 @@
+package de.blazemcworld.fireflow.compiler;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompiledClasses {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final HashMap<Integer, List<WeakReference<Class<?>>>> live = new HashMap<>();
+
+    public static String packageName() {
+        return CompiledClasses.class.getPackageName().replace('.', '/');
+    }
+
+    public static Class<?> define(byte[] bytes) throws IllegalAccessException {
+        return LOOKUP.defineHiddenClass(bytes, true).lookupClass();
+    }
+
+    public static Class<?> define(int space, byte[] bytes) throws IllegalAccessException {
+        return define(space, bytes, Map.of());
+    }
+
+    public static Class<?> define(int space, byte[] bytes, Map<String, byte[]> structs) throws IllegalAccessException {
+        return define(space, bytes, lookup(structs));
+    }
+
+    public static MethodHandles.Lookup lookup(Map<String, byte[]> structs) {
+        return structs.isEmpty() ? LOOKUP : new StructLoader(structs).lookup();
+    }
+
+    public static Class<?> defineSibling(int space, byte[] bytes, Class<?> sibling) throws IllegalAccessException {
+        return define(space, bytes, sibling.getClassLoader() instanceof StructLoader loader ? loader.lookup() : LOOKUP);
+    }
+
+    public static Class<?> define(int space, byte[] bytes, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        Class<?> clazz = lookup.defineHiddenClass(bytes, true).lookupClass();
+        synchronized (live) {
+            live.computeIfAbsent(space, id -> new ArrayList<>()).add(new WeakReference<>(clazz));
+        }
+        return clazz;
+    }
+
+    public static Map<String, Class<?>> structClasses(MethodHandles.Lookup lookup) {
+        return structClasses(lookup.lookupClass());
+    }
+
+    public static Map<String, Class<?>> structClasses(Class<?> compiled) {
+        if (!(compiled.getClassLoader() instanceof StructLoader loader)) return Map.of();
+        return loader.classes();
+    }
+
+    public static int liveClasses(int space) {
+        synchronized (live) {
+            List<WeakReference<Class<?>>> list = live.get(space);
+            if (list == null) return 0;
+            list.removeIf(ref -> ref.get() == null);
+            if (list.isEmpty()) live.remove(space);
+            return list.size();
+        }
+    }
+
+    public static Map<Integer, Integer> liveClasses() {
+        Map<Integer, Integer> out = new HashMap<>();
+        synchronized (live) {
+            for (Integer space : new ArrayList<>(live.keySet())) {
+                int count = liveClasses(space);
+                if (count > 0) out.put(space, count);
+            }
+        }
+        return out;
+    }
+
+    private static class StructLoader extends ClassLoader {
+        private static final String ANCHOR = packageName() + "/StructLookup";
+        private final Map<String, byte[]> pending = new HashMap<>();
+        private final Map<String, Class<?>> byStruct = new HashMap<>();
+
+        private StructLoader(Map<String, byte[]> structs) {
+            super(CompiledClasses.class.getClassLoader());
+            for (Map.Entry<String, byte[]> entry : structs.entrySet()) {
+                pending.put(entry.getKey().replace('/', '.'), entry.getValue());
+            }
+            pending.put(ANCHOR.replace('/', '.'), anchor());
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = pending.remove(name);
+            if (bytes == null) throw new ClassNotFoundException(name);
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+        private MethodHandles.Lookup lookup() {
+            try {
+                for (String name : new ArrayList<>(pending.keySet())) {
+                    Class<?> clazz = loadClass(name);
+                    if (CompiledStruct.class.isAssignableFrom(clazz)) {
+                        byStruct.put(((CompiledStruct) clazz.getConstructor().newInstance()).structName(), clazz);
+                    }
+                }
+                return (MethodHandles.Lookup) loadClass(ANCHOR.replace('/', '.')).getMethod("lookup").invoke(null);
+            } catch (ReflectiveOperationException err) {
+                throw new RuntimeException(err);
+            }
+        }
+
+        private Map<String, Class<?>> classes() {
+            return byStruct;
+        }
+
+        private static byte[] anchor() {
+            ClassWriter w = new ClassWriter(ClassWriter.COMPUTE_FRAMES + ClassWriter.COMPUTE_MAXS);
+            w.visit(Opcodes.V21, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, ANCHOR, null, "java/lang/Object", null);
+            MethodVisitor m = w.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;", null, null);
+            m.visitCode();
+            m.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;", false);
+            m.visitInsn(Opcodes.ARETURN);
+            m.visitMaxs(0, 0);
+            m.visitEnd();
+            w.visitEnd();
+            return w.toByteArray();
+        }
+    }
+}
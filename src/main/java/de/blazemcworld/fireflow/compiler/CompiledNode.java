@@ -2,102 +2,193 @@ package de.blazemcworld.fireflow.compiler;
 
 import de.blazemcworld.fireflow.FireFlow;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.CodePartition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import de.blazemcworld.fireflow.space.Space;
-import net.minestom.server.MinecraftServer;
-import net.minestom.server.timer.Task;
-import net.minestom.server.timer.TaskSchedule;
+import de.blazemcworld.fireflow.util.Config;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Stack;
+import java.util.Arrays;
 
 public abstract class CompiledNode {
 
-    public Map<String, Object> locals = new HashMap<>();
-    public Stack<Integer> fnStack = new Stack<>();
+    private static final int CPU_CHECK_INTERVAL = Config.store.limits().cpuCheckInterval() > 0 ? Config.store.limits().cpuCheckInterval() : 64;
+
+    public VariableStore locals;
+    private Object[][] fnFrames = new Object[8][];
+    private int fnDepth = 0;
     public Space space;
     public CodeEvaluator evaluator;
-    private final Stack<Map<String, Object>> internalVars = new Stack<>();
+    public CodePartition partition;
+    public Object[] internalVars;
     private long lastCpuCheck = System.nanoTime();
+    private int cpuChecks = CPU_CHECK_INTERVAL;
+    private int waiting = 0;
+    protected int memoEpoch = 1;
+    protected int loopEpoch = 1;
+
+    public CompiledNode(int internalVars) {
+        this.internalVars = new Object[internalVars];
+    }
 
-    public CompiledNode() {
-        internalVars.push(new HashMap<>());
+    public abstract CompiledNode create();
+
+    public boolean reset() {
+        if (waiting > 0) return false;
+        locals.clear();
+        Arrays.fill(fnFrames, 0, fnDepth, null);
+        fnDepth = 0;
+        memoEpoch++;
+        loopEpoch++;
+        Arrays.fill(internalVars, null);
+        return true;
     }
 
     @SuppressWarnings("unused") //Used by CpuCheckInstruction
     public void cpuCheck() {
+        if (--cpuChecks > 0) return;
+        cpuSample();
+    }
+
+    private void cpuSample() {
+        cpuChecks = CPU_CHECK_INTERVAL;
+        cpuCharge();
+        if (evaluator.cpuLeft < 0 || evaluator.isStopped()) throw new CpuLimitException();
+    }
+
+    private void cpuCharge() {
         long now = System.nanoTime();
         evaluator.cpuLeft -= now - lastCpuCheck;
         lastCpuCheck = now;
-        if (evaluator.cpuLeft < 0) {
-            fnStack.clear();
-            throw new CpuLimitException();
-        }
     }
 
     @SuppressWarnings("unused") //Used by FunctionDefinitions
-    public void pushFnStack(int id) {
-        fnStack.push(id);
-        internalVars.push(new HashMap<>());
+    public int pushFnFrame(Object[] frame) {
+        if (fnDepth == fnFrames.length) fnFrames = Arrays.copyOf(fnFrames, fnDepth * 2);
+        fnFrames[fnDepth] = frame;
+        return fnDepth++;
     }
 
     @SuppressWarnings("unused") //Used by FunctionDefinitions
-    public void popFnStack() {
-        fnStack.pop();
-        internalVars.pop();
+    public void popFnFrame() {
+        fnFrames[--fnDepth] = null;
     }
 
     @SuppressWarnings("unused") //Used by FunctionDefinitions
-    public int peekFnStack() {
-        if (fnStack.isEmpty()) return -1;
-        return fnStack.peek();
+    public Object[] getFnFrame(int id) {
+        if (id < 0) return null;
+        return fnFrames[id];
+    }
+
+    @SuppressWarnings("unused") //Used by FunctionDefinitions
+    public Object[] enterInternalVars() {
+        Object[] caller = internalVars;
+        if (caller.length > 0) internalVars = caller.clone();
+        return caller;
+    }
+
+    @SuppressWarnings("unused") //Used by FunctionDefinitions
+    public Object[] swapInternalVars(Object[] next) {
+        Object[] previous = internalVars;
+        internalVars = next;
+        memoEpoch++;
+        return previous;
     }
 
     @SuppressWarnings("unused") // Used by asm
+    public Object getInternalVar(int slot) {
+        return internalVars[slot];
+    }
+
+    public void setInternalVar(int slot, Object value) {
+        internalVars[slot] = value;
+        memoEpoch++;
+    }
+
     public Object getInternalVar(String key) {
-        for (int i = internalVars.size() - 1; i >= 0; i--) {
-            Object v = internalVars.get(i).get(key);
-            if (v != null) return v;
-        }
-        return null;
+        return getInternalVar(partition.compiler.internalSlot(key));
     }
 
     public void setInternalVar(String key, Object value) {
-        internalVars.peek().put(key, value);
+        setInternalVar(partition.compiler.internalSlot(key), value);
+    }
+
+    public void allocate(long bytes) {
+        evaluator.memory.allocate(bytes, this);
+    }
+
+    public void free(long bytes) {
+        evaluator.memory.free(bytes);
+    }
+
+    public boolean defersEffects() {
+        return evaluator.defersEffects();
+    }
+
+    public void effect(Runnable effect) {
+        evaluator.effect(effect);
     }
 
     @SuppressWarnings("unused") // Used by asm
-    protected void runScheduled(double delay, String id) {
-        CompiledNode ctx = evaluator.newContext();
-        ctx.locals = this.locals;
-        ctx.internalVars.addAll(this.internalVars);
+    protected void suspend(double delay, int point, Object[] frame) {
+        if (evaluator.isStopped()) return;
+        waiting++;
+        evaluator.waits.add((int) Math.max(delay, 1), this, point, frame, internalVars.clone());
+    }
 
-        Task[] t = new Task[] {null};
+    @SuppressWarnings("unused") // Used by asm
+    protected void repeat(double interval, double times, int point, Object[] frame) {
+        if (evaluator.isStopped() || !(times >= 1)) return;
+        waiting++;
+        evaluator.waits.repeat((int) Math.max(interval, 1), (int) Math.min(times, Integer.MAX_VALUE), this, point, frame, internalVars.clone());
+    }
+
+    protected abstract void dispatch(int entry);
+
+    protected abstract void resumeAt(int point, Object[] frame);
+
+    public void emit(int entry) {
+        run(entry, null, null);
+    }
 
-        Runnable stop = () -> t[0].cancel();
-        t[0] = MinecraftServer.getSchedulerManager().scheduleTask(() -> {
-            evaluator.stopEvents.remove(stop);
-            ctx.emit(id);
-            return TaskSchedule.stop();
-        }, TaskSchedule.tick((int) Math.max(delay, 1)));
-        evaluator.stopEvents.add(stop);
+    public void wake(int point, Object[] frame, Object[] slots) {
+        waiting--;
+        run(point, frame, slots);
     }
 
-    public void emit(String entry) {
+    public void fire(int point, Object[] frame, Object[] slots) {
+        run(point, frame, slots);
+    }
+
+    private void run(int entry, Object[] frame, Object[] slots) {
+        CompiledNode previous = MemoryMeter.enter(this);
         try {
             lastCpuCheck = System.nanoTime();
-            this.getClass().getDeclaredMethod(entry).invoke(this);
-        } catch (Exception err) {
-            if (err instanceof InvocationTargetException invoke) {
-                if (invoke.getTargetException() instanceof CpuLimitException) {
-                    FireFlow.LOGGER.warn("Reached cpu limit for Space #{}!", space.info.id);
-                    evaluator.stop(false);
-                    return;
-                }
-
-                FireFlow.LOGGER.error("Internal evaluation error!", invoke.getTargetException());
+            cpuChecks = CPU_CHECK_INTERVAL;
+            if (evaluator.cpuLeft < 0) throw new CpuLimitException();
+            if (slots != null) {
+                System.arraycopy(slots, 0, internalVars, 0, slots.length);
+                memoEpoch++;
+                loopEpoch++;
+                resumeAt(entry, frame);
+            } else {
+                partition.countRoot(entry);
+                dispatch(entry);
             }
+            cpuCharge();
+        } catch (CpuLimitException err) {
+            if (!evaluator.isStopped()) evaluator.cpuAbort();
+        } catch (MemoryLimitException err) {
+            FireFlow.LOGGER.warn("Reached memory limit for Space #{}!", space.info.id);
+            evaluator.stop(false);
+        } catch (StackOverflowError err) {
+            FireFlow.LOGGER.warn("Reached function depth limit for Space #{}!", space.info.id);
+            evaluator.stop(false);
+        } catch (Exception err) {
+            FireFlow.LOGGER.error("Internal evaluation error!", err);
+        } finally {
+            MemoryMeter.exit(previous);
+            partition.release(this);
         }
     }
 }
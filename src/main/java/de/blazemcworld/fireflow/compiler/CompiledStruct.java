@@ -0,0 +1,75 @@
+package de.blazemcworld.fireflow.compiler;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+public abstract class CompiledStruct {
+
+    public abstract String structName();
+
+    public abstract Object[] values();
+
+    public static Object revive(Object value, Map<String, Class<?>> classes) {
+        if (value instanceof CompiledStruct struct) {
+            Class<?> target = classes.get(struct.structName());
+            if (target == null || target == struct.getClass()) return value;
+            Object[] values = struct.values();
+            for (int i = 0; i < values.length; i++) values[i] = revive(values[i], classes);
+            return restore(target, values);
+        }
+        if (value instanceof List<?> list) {
+            @SuppressWarnings("unchecked") List<Object> l = (List<Object>) list;
+            l.replaceAll(each -> revive(each, classes));
+        }
+        if (value instanceof Map<?, ?> map) {
+            @SuppressWarnings("unchecked") Map<Object, Object> m = (Map<Object, Object>) map;
+            m.replaceAll((key, each) -> revive(each, classes));
+        }
+        return value;
+    }
+
+    private static Object restore(Class<?> target, Object[] values) {
+        try {
+            Object out = target.getConstructor().newInstance();
+            for (int i = 0; i < values.length; i++) {
+                Field field;
+                try {
+                    field = target.getField("f" + i);
+                } catch (NoSuchFieldException err) {
+                    break;
+                }
+                Object value = values[i];
+                if (value == null) continue;
+                if (field.getType() == double.class ? value instanceof Double
+                        : field.getType() == boolean.class ? value instanceof Boolean
+                        : field.getType().isInstance(value)) {
+                    field.set(out, value);
+                }
+            }
+            return out;
+        } catch (ReflectiveOperationException err) {
+            throw new RuntimeException(err);
+        }
+    }
+
+    public static final class Saved extends CompiledStruct {
+        private final String name;
+        private final Object[] values;
+
+        public Saved(String name, Object[] values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        @Override
+        public String structName() {
+            return name;
+        }
+
+        @Override
+        public Object[] values() {
+            return values;
+        }
+    }
+}
@@ -1,21 +1,16 @@
 package de.blazemcworld.fireflow.compiler;
 
-import de.blazemcworld.fireflow.compiler.instruction.InstanceMethodInstruction;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
-import de.blazemcworld.fireflow.compiler.instruction.MultiInstruction;
-import de.blazemcworld.fireflow.compiler.instruction.RawInstruction;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeInput;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.value.SignalValue;
-import it.unimi.dsi.fastutil.Pair;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 public final class FunctionDefinition {
     public final String fnName;
@@ -23,55 +18,33 @@ public final class FunctionDefinition {
     public final DefinitionNode fnOutputsNode;
     public final List<NodeInput> fnOutputs;
     public final List<NodeOutput> fnInputs;
-    private final WeakHashMap<Call, Integer> calls = new WeakHashMap<>();
-    private static int callIds = 0;
+    private final Type[] params;
+    private final boolean hasExits;
 
     public FunctionDefinition(String fnName, List<NodeOutput> fnInputs, List<NodeInput> fnOutputs) {
         this.fnName = fnName;
         this.fnOutputs = fnOutputs;
         this.fnInputs = fnInputs;
 
+        List<Type> paramTypes = new ArrayList<>(List.of(Type.INT_TYPE, Type.INT_TYPE, Type.getType(Object[].class)));
         for (NodeOutput each : fnInputs) {
             if (each.getType() == SignalValue.INSTANCE) continue;
 
-            Instruction peek = peekStack();
+            int index = paramTypes.size();
+            paramTypes.add(each.returnType());
             each.setInstruction(new Instruction() {
                 @Override
                 public void prepare(NodeCompiler ctx) {
-                    ctx.prepare(peek);
-                    for (Call c : calls.keySet()) {
-                        for (NodeInput other : c.inputs) {
-                            if (!other.getName().equals(each.getName()) || !other.getType().equals(each.getType()))
-                                continue;
-                            ctx.prepare(other);
-                        }
-                    }
+                    ctx.inline(each);
+                    ctx.inline(this);
                 }
 
                 @Override
                 public InsnList compile(NodeCompiler ctx, int usedVars) {
+                    int slot = ctx.paramSlot(scope(ctx), index);
+                    if (slot == -1) return each.getType().compile(ctx, null);
                     InsnList out = new InsnList();
-                    LabelNode end = new LabelNode();
-
-                    out.add(ctx.compile(peek, usedVars));
-                    for (Map.Entry<Call, Integer> e : calls.entrySet()) {
-                        for (NodeInput other : e.getKey().inputs) {
-                            if (!other.getName().equals(each.getName()) || !other.getType().equals(each.getType()))
-                                continue;
-                            out.add(new InsnNode(Opcodes.DUP));
-                            out.add(new LdcInsnNode(e.getValue()));
-                            LabelNode next = new LabelNode();
-                            out.add(new JumpInsnNode(Opcodes.IF_ICMPNE, next));
-                            out.add(new InsnNode(Opcodes.POP));
-                            out.add(ctx.compile(other, usedVars));
-                            out.add(new JumpInsnNode(Opcodes.GOTO, end));
-                            out.add(next);
-                        }
-                    }
-
-                    out.add(new InsnNode(Opcodes.POP));
-                    out.add(each.getType().compile(ctx, null));
-                    out.add(end);
+                    out.add(new VarInsnNode(each.returnType().getOpcode(Opcodes.ILOAD), slot));
                     return out;
                 }
 
@@ -81,46 +54,58 @@ public final class FunctionDefinition {
                 }
             });
         }
+        params = paramTypes.toArray(new Type[0]);
 
+        boolean exits = false;
         for (NodeInput each : fnOutputs) {
             if (each.getType() != SignalValue.INSTANCE) continue;
+            exits = true;
 
-            Instruction peek = peekStack();
+            int index = fnOutputs.indexOf(each);
             each.setInstruction(new Instruction() {
                 @Override
                 public void prepare(NodeCompiler ctx) {
-                    ctx.prepare(peek);
-                    for (Call c : calls.keySet()) {
-                        for (NodeOutput other : c.outputs) {
-                            if (!other.getName().equals(each.getName()) || !other.getType().equals(each.getType()))
-                                continue;
-                            ctx.prepare(other);
-                        }
-                    }
                 }
 
                 @Override
                 public InsnList compile(NodeCompiler ctx, int usedVars) {
                     InsnList out = new InsnList();
-                    LabelNode end = new LabelNode();
+                    int siteSlot = ctx.paramSlot(scope(ctx), 0);
+                    int slotsSlot = ctx.paramSlot(scope(ctx), 2);
+                    List<Object> sites = ctx.callSites(FunctionDefinition.this);
+                    if (siteSlot == -1 || sites.isEmpty()) return out;
 
-                    out.add(ctx.compile(peek, usedVars));
-                    for (Map.Entry<Call, Integer> e : calls.entrySet()) {
-                        for (NodeOutput other : e.getKey().outputs) {
-                            if (!other.getName().equals(each.getName()) || !other.getType().equals(each.getType()))
-                                continue;
-                            out.add(new InsnNode(Opcodes.DUP));
-                            out.add(new LdcInsnNode(e.getValue()));
-                            LabelNode next = new LabelNode();
-                            out.add(new JumpInsnNode(Opcodes.IF_ICMPNE, next));
-                            out.add(new InsnNode(Opcodes.POP));
-                            out.add(ctx.compile(other, usedVars));
-                            out.add(new JumpInsnNode(Opcodes.GOTO, end));
-                            out.add(next);
+                    LabelNode end = new LabelNode();
+                    LabelNode[] cases = new LabelNode[sites.size()];
+                    InsnList bodies = new InsnList();
+                    for (int i = 0; i < sites.size(); i++) {
+                        cases[i] = new LabelNode();
+                        bodies.add(cases[i]);
+                        NodeOutput next = ((Call) sites.get(i)).outputs.get(index);
+                        NodeCompiler.Scope home = ctx.home(next);
+                        if (home.params().length > 0) {
+                            bodies.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                            bodies.add(new VarInsnNode(Opcodes.ILOAD, ctx.paramSlot(scope(ctx), 1)));
+                            bodies.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "getFnFrame", "(I)[Ljava/lang/Object;"));
+                            bodies.add(new VarInsnNode(Opcodes.ASTORE, usedVars + 1));
                         }
+                        bodies.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                        bodies.add(new VarInsnNode(Opcodes.ALOAD, slotsSlot));
+                        bodies.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "swapInternalVars", "([Ljava/lang/Object;)[Ljava/lang/Object;"));
+                        bodies.add(new VarInsnNode(Opcodes.ASTORE, usedVars));
+                        bodies.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                        if (home.params().length > 0) bodies.add(ctx.restoreScope(home, usedVars + 1));
+                        bodies.add(ctx.invoke(next));
+                        bodies.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                        bodies.add(new VarInsnNode(Opcodes.ALOAD, usedVars));
+                        bodies.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "swapInternalVars", "([Ljava/lang/Object;)[Ljava/lang/Object;"));
+                        bodies.add(new InsnNode(Opcodes.POP));
+                        bodies.add(new JumpInsnNode(Opcodes.GOTO, end));
                     }
 
-                    out.add(new InsnNode(Opcodes.POP));
+                    out.add(new VarInsnNode(Opcodes.ILOAD, siteSlot));
+                    out.add(new TableSwitchInsnNode(0, cases.length - 1, end, cases));
+                    out.add(bodies);
                     out.add(end);
                     return out;
                 }
@@ -131,6 +116,7 @@ public final class FunctionDefinition {
                 }
             });
         }
+        hasExits = exits;
 
         fnInputsNode = new DefinitionNode(true);
         fnOutputsNode = new DefinitionNode(false);
@@ -138,6 +124,10 @@ public final class FunctionDefinition {
         fnOutputsNode.inputs.addAll(fnOutputs);
     }
 
+    private NodeCompiler.Scope scope(NodeCompiler ctx) {
+        return ctx.functionScope(this, params);
+    }
+
     public class DefinitionNode extends Node {
         public final boolean isInputs;
         public DefinitionNode(boolean isInputs) {
@@ -163,55 +153,108 @@ public final class FunctionDefinition {
 
         private Call() {
             super(fnName);
-            calls.put(this, callIds++);
 
             for (NodeOutput each : fnInputs) {
                 NodeInput other = input(each.getName(), each.getType());
                 if (each.getType() == SignalValue.INSTANCE) {
-                    other.setInstruction(new MultiInstruction(each.returnType(),
-                            pushStack(calls.get(this)),
-                            each,
-                            popStack()
-                    ));
+                    other.setInstruction(new Instruction() {
+                        @Override
+                        public void prepare(NodeCompiler ctx) {
+                            prepareArguments(ctx);
+                            ctx.callSite(FunctionDefinition.this, Call.this);
+                            for (int i = 0; i < fnOutputs.size(); i++) {
+                                if (fnOutputs.get(i).getType() != SignalValue.INSTANCE) continue;
+                                ctx.prepareIn(outputs.get(i), ctx.scope());
+                            }
+                            ctx.prepareIn(each, scope(ctx));
+                            ctx.checkCpu(each);
+                        }
+
+                        @Override
+                        public InsnList compile(NodeCompiler ctx, int usedVars) {
+                            boolean frame = hasExits && ctx.scope().params().length > 0;
+                            InsnList out = new InsnList();
+                            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                            out.add(new LdcInsnNode(ctx.callSite(FunctionDefinition.this, Call.this)));
+                            if (frame) {
+                                out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                                out.add(ctx.captureScope());
+                                out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "pushFnFrame", "([Ljava/lang/Object;)I"));
+                            } else {
+                                out.add(new InsnNode(Opcodes.ICONST_M1));
+                            }
+                            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                            out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "enterInternalVars", "()[Ljava/lang/Object;"));
+                            out.add(new InsnNode(Opcodes.DUP));
+                            out.add(new VarInsnNode(Opcodes.ASTORE, usedVars));
+                            out.add(compileArguments(ctx, usedVars + 1));
+                            out.add(ctx.invoke(each));
+                            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                            out.add(new VarInsnNode(Opcodes.ALOAD, usedVars));
+                            out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "swapInternalVars", "([Ljava/lang/Object;)[Ljava/lang/Object;"));
+                            out.add(new InsnNode(Opcodes.POP));
+                            if (frame) {
+                                out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                                out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(CompiledNode.class), "popFnFrame", "()V"));
+                            }
+                            return out;
+                        }
+
+                        @Override
+                        public Type returnType() {
+                            return Type.VOID_TYPE;
+                        }
+                    });
                 }
             }
             for (NodeInput each : fnOutputs) {
                 NodeOutput other = output(each.getName(), each.getType());
                 if (each.getType() != SignalValue.INSTANCE) {
-                    other.setInstruction(new MultiInstruction(each.returnType(),
-                            pushStack(calls.get(this)),
-                            each,
-                            popStack()
-                    ));
+                    other.setInstruction(new Instruction() {
+                        @Override
+                        public void prepare(NodeCompiler ctx) {
+                            prepareArguments(ctx);
+                            ctx.prepareIn(each, scope(ctx));
+                            ctx.checkCpu(each);
+                        }
+
+                        @Override
+                        public InsnList compile(NodeCompiler ctx, int usedVars) {
+                            InsnList out = new InsnList();
+                            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                            out.add(new InsnNode(Opcodes.ICONST_M1));
+                            out.add(new InsnNode(Opcodes.ICONST_M1));
+                            out.add(new InsnNode(Opcodes.ACONST_NULL));
+                            out.add(compileArguments(ctx, usedVars));
+                            out.add(ctx.invoke(each));
+                            return out;
+                        }
+
+                        @Override
+                        public Type returnType() {
+                            return each.returnType();
+                        }
+                    });
                 }
             }
         }
 
-        public FunctionDefinition getDefinition() {
-            return FunctionDefinition.this;
+        private void prepareArguments(NodeCompiler ctx) {
+            for (NodeInput arg : inputs) {
+                if (arg.getType() != SignalValue.INSTANCE) ctx.prepare(arg);
+            }
         }
-    }
-
-    private static Instruction pushStack(int id) {
-        return new InstanceMethodInstruction(
-                CompiledNode.class, new RawInstruction(Type.getType(CompiledNode.class), new VarInsnNode(Opcodes.ALOAD, 0)), "pushFnStack", Type.VOID_TYPE,
-                List.of(Pair.of(Type.INT_TYPE, new RawInstruction(Type.INT_TYPE, new LdcInsnNode(id))))
-        );
-    }
 
-    private static Instruction popStack() {
-        return new InstanceMethodInstruction(
-                CompiledNode.class, new RawInstruction(Type.getType(CompiledNode.class), new VarInsnNode(Opcodes.ALOAD, 0)),
-                "popFnStack", Type.VOID_TYPE, List.of()
-        );
-    }
+        private InsnList compileArguments(NodeCompiler ctx, int usedVars) {
+            InsnList out = new InsnList();
+            for (NodeInput arg : inputs) {
+                if (arg.getType() != SignalValue.INSTANCE) out.add(ctx.compile(arg, usedVars));
+            }
+            return out;
+        }
 
-    private static Instruction peekStack() {
-        return new InstanceMethodInstruction(
-                CompiledNode.class, new RawInstruction(Type.getType(CompiledNode.class), new VarInsnNode(Opcodes.ALOAD, 0)),
-                "peekFnStack", Type.INT_TYPE, List.of()
-        );
+        public FunctionDefinition getDefinition() {
+            return FunctionDefinition.this;
+        }
     }
-
-
 }
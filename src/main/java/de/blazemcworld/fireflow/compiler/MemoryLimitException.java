@@ -0,0 +1,4 @@
+package de.blazemcworld.fireflow.compiler;
+
+public class MemoryLimitException extends RuntimeException {
+}
@@ -0,0 +1,202 @@
+package de.blazemcworld.fireflow.compiler;
+
+import de.blazemcworld.fireflow.FireFlow;
+import de.blazemcworld.fireflow.value.StructValue;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+import org.objectweb.asm.tree.analysis.*;
+
+import java.util.*;
+
+public class MethodSplitter {
+
+    public static final int SPLIT_SIZE = 3000;
+
+    private final LinkedHashMap<LabelNode, Region> regions = new LinkedHashMap<>();
+    private int splitCount = 0;
+
+    public InsnList mark(InsnList code, int usedVars) {
+        if (estimateSize(code) < SPLIT_SIZE) return code;
+        Region region = new Region(new LabelNode(), new LabelNode(), usedVars);
+        code.insert(region.start);
+        code.add(region.end);
+        regions.put(region.start, region);
+        return code;
+    }
+
+    public int estimateSize(InsnList code) {
+        int size = 0;
+        for (AbstractInsnNode insn = code.getFirst(); insn != null; insn = insn.getNext()) {
+            if (insn instanceof LabelNode label && regions.containsKey(label)) {
+                Region region = regions.get(label);
+                size += 4 + region.usedVars * 2;
+                insn = region.end;
+                continue;
+            }
+            size += switch (insn) {
+                case LabelNode ignored -> 0;
+                case LineNumberNode ignored -> 0;
+                case FrameNode ignored -> 0;
+                case VarInsnNode v -> v.var > 255 ? 4 : 2;
+                case IincInsnNode ignored -> 6;
+                case IntInsnNode i -> i.getOpcode() == Opcodes.SIPUSH ? 3 : 2;
+                case LdcInsnNode ldc -> ldc.cst instanceof Long || ldc.cst instanceof Double ? 3 : 2;
+                case MethodInsnNode m -> m.getOpcode() == Opcodes.INVOKEINTERFACE ? 5 : 3;
+                case JumpInsnNode ignored -> 5;
+                case TableSwitchInsnNode t -> 16 + t.labels.size() * 4;
+                case LookupSwitchInsnNode l -> 12 + l.labels.size() * 8;
+                case InsnNode ignored -> 1;
+                default -> 3;
+            };
+        }
+        return size;
+    }
+
+    public void split(ClassNode classNode) {
+        if (regions.isEmpty()) return;
+        HashMap<LabelNode, MethodNode> owners = new HashMap<>();
+        HashMap<LabelNode, Frame<BasicValue>> frames = new HashMap<>();
+        for (MethodNode method : new ArrayList<>(classNode.methods)) {
+            if (method.tryCatchBlocks != null && !method.tryCatchBlocks.isEmpty()) continue;
+            List<LabelNode> starts = new ArrayList<>();
+            for (AbstractInsnNode insn : method.instructions) {
+                if (insn instanceof LabelNode label && regions.containsKey(label)) starts.add(label);
+            }
+            if (starts.isEmpty()) continue;
+
+            Frame<BasicValue>[] analyzed = analyze(classNode, method);
+            if (analyzed == null) continue;
+            for (LabelNode start : starts) {
+                owners.put(start, method);
+                frames.put(start, analyzed[method.instructions.indexOf(start)]);
+            }
+        }
+
+        for (Region region : regions.values()) {
+            MethodNode owner = owners.get(region.start);
+            Frame<BasicValue> frame = frames.get(region.start);
+            if (owner == null || frame == null) continue;
+            extract(classNode, owner, region, frame);
+        }
+    }
+
+    private void extract(ClassNode classNode, MethodNode owner, Region region, Frame<BasicValue> frame) {
+        List<AbstractInsnNode> body = new ArrayList<>();
+        for (AbstractInsnNode insn = region.start; insn != null; insn = insn.getNext()) {
+            body.add(insn);
+            if (insn == region.end) break;
+        }
+        if (body.getLast() != region.end || !selfContained(owner, new HashSet<>(body))) return;
+
+        TreeMap<Integer, Type> live = new TreeMap<>();
+        for (AbstractInsnNode insn : body) {
+            int var = switch (insn) {
+                case VarInsnNode v -> v.var;
+                case IincInsnNode v -> v.var;
+                default -> 0;
+            };
+            if (var == 0 || var >= region.usedVars || var >= frame.getLocals()) continue;
+            Type type = frame.getLocal(var).getType();
+            if (type == null) continue;
+            if (type.getSort() == Type.OBJECT && type.getInternalName().equals("null")) type = Type.getType(Object.class);
+            live.put(var, type);
+        }
+
+        HashMap<Integer, Integer> remap = new HashMap<>();
+        int params = 0;
+        for (Map.Entry<Integer, Type> entry : live.entrySet()) {
+            remap.put(entry.getKey(), params + 1);
+            params += entry.getValue().getSize();
+        }
+
+        MethodNode split = new MethodNode();
+        split.name = "s" + splitCount++;
+        split.access = Opcodes.ACC_PUBLIC;
+        split.desc = Type.getMethodDescriptor(Type.VOID_TYPE, live.values().toArray(new Type[0]));
+
+        InsnList call = new InsnList();
+        call.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        for (Map.Entry<Integer, Type> entry : live.entrySet()) {
+            call.add(new VarInsnNode(entry.getValue().getOpcode(Opcodes.ILOAD), entry.getKey()));
+        }
+        call.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, classNode.name, split.name, split.desc));
+        owner.instructions.insertBefore(region.start, call);
+
+        for (AbstractInsnNode insn : body) {
+            owner.instructions.remove(insn);
+            if (insn instanceof VarInsnNode v && v.var != 0) v.var = remap.getOrDefault(v.var, v.var + params);
+            if (insn instanceof IincInsnNode v && v.var != 0) v.var = remap.getOrDefault(v.var, v.var + params);
+            split.instructions.add(insn);
+        }
+        split.instructions.add(new InsnNode(Opcodes.RETURN));
+        classNode.methods.add(split);
+    }
+
+    private static boolean selfContained(MethodNode owner, Set<AbstractInsnNode> body) {
+        for (AbstractInsnNode insn : owner.instructions) {
+            boolean inside = body.contains(insn);
+            for (LabelNode target : targets(insn)) {
+                if (body.contains(target) != inside) return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<LabelNode> targets(AbstractInsnNode insn) {
+        return switch (insn) {
+            case JumpInsnNode jump -> List.of(jump.label);
+            case TableSwitchInsnNode table -> {
+                List<LabelNode> out = new ArrayList<>(table.labels);
+                out.add(table.dflt);
+                yield out;
+            }
+            case LookupSwitchInsnNode lookup -> {
+                List<LabelNode> out = new ArrayList<>(lookup.labels);
+                out.add(lookup.dflt);
+                yield out;
+            }
+            default -> List.of();
+        };
+    }
+
+    private static Frame<BasicValue>[] analyze(ClassNode classNode, MethodNode method) {
+        int locals = Type.getArgumentsAndReturnSizes(method.desc) >> 2;
+        for (AbstractInsnNode insn : method.instructions) {
+            if (insn instanceof VarInsnNode v) {
+                int size = v.getOpcode() == Opcodes.LLOAD || v.getOpcode() == Opcodes.DLOAD
+                        || v.getOpcode() == Opcodes.LSTORE || v.getOpcode() == Opcodes.DSTORE ? 2 : 1;
+                locals = Math.max(locals, v.var + size);
+            }
+            if (insn instanceof IincInsnNode v) locals = Math.max(locals, v.var + 1);
+        }
+        method.maxLocals = locals;
+        if (method.tryCatchBlocks == null) method.tryCatchBlocks = new ArrayList<>();
+
+        SimpleVerifier verifier = new SimpleVerifier(Opcodes.ASM9, Type.getObjectType(classNode.name), Type.getObjectType(classNode.superName), List.of(), false) {
+            @Override
+            protected Class<?> getClass(Type type) {
+                if (type.getSort() == Type.OBJECT && StructValue.isStructClass(type.getInternalName())) return CompiledStruct.class;
+                return super.getClass(type);
+            }
+        };
+        verifier.setClassLoader(MethodSplitter.class.getClassLoader());
+        for (int stack = 64; stack <= 1024; stack *= 4) {
+            method.maxStack = stack;
+            try {
+                return new Analyzer<>(verifier).analyze(classNode.name, method);
+            } catch (AnalyzerException err) {
+                if (err.getMessage() != null && err.getMessage().contains("maximum stack size")) continue;
+                FireFlow.LOGGER.warn("Could not split method {}!", method.name, err);
+                return null;
+            } catch (RuntimeException err) {
+                FireFlow.LOGGER.warn("Could not split method {}!", method.name, err);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private record Region(LabelNode start, LabelNode end, int usedVars) {
+    }
+}
@@ -2,44 +2,97 @@ package de.blazemcworld.fireflow.compiler;
 
 import de.blazemcworld.fireflow.compiler.instruction.CpuCheckInstruction;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
+import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.node.NodeInput;
+import de.blazemcworld.fireflow.node.NodeOutput;
+import de.blazemcworld.fireflow.value.SignalValue;
+import de.blazemcworld.fireflow.value.StructValue;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class NodeCompiler {
 
+    public static final int VERSION = 10;
+    public static final Scope ROOT = new Scope(null, new Type[0]);
+
     public final ClassNode classNode = new ClassNode();
     public final String className;
+    public final CodeEvaluator evaluator;
+    public int peepholeRemoved = 0;
     private final HashMap<Instruction, Integer> uses = new HashMap<>();
     private final HashMap<Instruction, String> names = new HashMap<>();
     private final HashMap<Instruction, MethodNode> methods = new HashMap<>();
+    private final HashMap<Instruction, Integer> rootIds = new HashMap<>();
+    private final List<Instruction> roots = new ArrayList<>();
+    private final HashMap<Instruction, Integer> resumeIds = new HashMap<>();
+    private final List<Instruction> resumes = new ArrayList<>();
+    private final HashMap<String, Integer> internalSlots = new HashMap<>();
+    private int slotCount = 0;
+    private final HashMap<Instruction, Object> constants = new HashMap<>();
+    private final HashSet<Instruction> notConstant = new HashSet<>();
+    private final LinkedHashMap<Instruction, Integer> pending = new LinkedHashMap<>();
+    private List<Instruction> collecting = null;
+    private final HashMap<Instruction, Scope> homes = new HashMap<>();
+    private final HashSet<Instruction> inlined = new HashSet<>();
+    private final HashMap<Object, Scope> scopes = new HashMap<>();
+    private final HashMap<Object, List<Object>> sites = new HashMap<>();
+    private final HashMap<Instruction, Integer> memos = new HashMap<>();
+    private final MethodSplitter splitter = new MethodSplitter();
+    private final HashSet<Instruction> optimized = new HashSet<>();
+    private final HashSet<Instruction> checked = new HashSet<>();
+    private final HashMap<Instruction, List<Instruction>> loops = new HashMap<>();
+    private final HashMap<Instruction, List<Instruction>> hoists = new HashMap<>();
+    private final HashMap<Instruction, Integer> hoisted = new HashMap<>();
+    private boolean optimizing = false;
+    private Scope scope = ROOT;
+    private final List<Integer> trace = new ArrayList<>();
+    private Iterator<Integer> replay = null;
+    private int preparing = 0;
+    private boolean compiling = false;
 
-    public NodeCompiler(String name) {
+    public NodeCompiler(String name, CodeEvaluator evaluator) {
+        this.evaluator = evaluator;
         classNode.access = Opcodes.ACC_PUBLIC;
-        classNode.name = "de/blazemcworld/fireflow/compiled/" + name.replace('.', '/');
+        classNode.name = CompiledClasses.packageName() + "/" + name.replace('.', '/');
         classNode.version = Opcodes.V21;
         classNode.superName = "de/blazemcworld/fireflow/compiler/CompiledNode";
         className = classNode.name.replace('/', '.');
-
-        MethodNode initMethod = new MethodNode();
-        initMethod.name = "<init>";
-        initMethod.access = Opcodes.ACC_PUBLIC;
-        initMethod.desc = "()V";
-        initMethod.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
-        initMethod.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, "de/blazemcworld/fireflow/compiler/CompiledNode", "<init>", "()V"));
-        initMethod.instructions.add(new InsnNode(Opcodes.RETURN));
-        classNode.methods.add(initMethod);
     }
 
     public byte[] compile() {
+        compiling = true;
+        for (Instruction i : new ArrayList<>(uses.keySet())) {
+            if (i instanceof NodeOutput output && optimized.contains(output)) fold(output);
+        }
+        evaluate();
+
         for (Map.Entry<Instruction, Integer> entry : uses.entrySet()) {
-            if (entry.getValue() <= 1) continue;
+            if (entry.getKey() instanceof NodeOutput output && optimized.contains(output)) memoize(output);
+        }
+
+        for (Map.Entry<Instruction, List<Instruction>> entry : loops.entrySet()) {
+            if (optimized.contains(entry.getKey())) hoist(entry.getKey(), entry.getValue());
+        }
+
+        for (Map.Entry<Instruction, Integer> entry : uses.entrySet()) {
+            if (entry.getValue() <= 1 || constants.containsKey(entry.getKey()) || inlined.contains(entry.getKey())) continue;
             createMethod(entry.getKey());
         }
+        createDispatch();
+        createResume();
+        createConstructors();
+
+        for (Map.Entry<Instruction, MethodNode> entry : methods.entrySet()) {
+            if (optimized.contains(entry.getKey())) BranchPruner.prune(entry.getValue());
+        }
+        splitter.split(classNode);
+        for (Map.Entry<Instruction, MethodNode> entry : methods.entrySet()) {
+            if (optimized.contains(entry.getKey())) peepholeRemoved += Peephole.optimize(entry.getValue());
+        }
 
         for (MethodNode m : classNode.methods) {
             for (AbstractInsnNode i : m.instructions) {
@@ -47,43 +100,668 @@ public class NodeCompiler {
             }
         }
 
-        ClassWriter w = new ClassWriter(ClassWriter.COMPUTE_FRAMES + ClassWriter.COMPUTE_MAXS);
+        ClassWriter w = new ClassWriter(ClassWriter.COMPUTE_FRAMES + ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                if (StructValue.isStructClass(type1) || StructValue.isStructClass(type2)) return "java/lang/Object";
+                return super.getCommonSuperClass(type1, type2);
+            }
+        };
         classNode.accept(w);
         return w.toByteArray();
     }
 
     private void createMethod(Instruction i) {
         if (methods.containsKey(i)) return;
+        Scope home = homes.getOrDefault(i, ROOT);
         MethodNode methodNode = new MethodNode();
         methods.put(i, methodNode);
         methodNode.name = names.computeIfAbsent(i, (_i) -> "m" + names.size());
         methodNode.access = Opcodes.ACC_PUBLIC;
-        methodNode.desc = Type.getMethodDescriptor(i.returnType());
+        methodNode.desc = Type.getMethodDescriptor(i.returnType(), home.params());
 
-        methodNode.instructions.add(new CpuCheckInstruction().compile(this, 0));
-        methodNode.instructions.add(i.compile(this, 1));
+        Scope previous = scope;
+        scope = home;
+        Integer memo = memos.get(i);
+        LabelNode compute = new LabelNode();
+        if (memo != null) {
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            methodNode.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.name, "memoAt" + memo, "I"));
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            methodNode.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.superName, "memoEpoch", "I"));
+            methodNode.instructions.add(new JumpInsnNode(Opcodes.IF_ICMPNE, compute));
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            methodNode.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.name, "memo" + memo, i.returnType().getDescriptor()));
+            methodNode.instructions.add(new InsnNode(i.returnType().getOpcode(Opcodes.IRETURN)));
+            methodNode.instructions.add(compute);
+        }
+        if (checked.contains(i)) methodNode.instructions.add(new CpuCheckInstruction().compile(this, 0));
+        methodNode.instructions.add(i.compile(this, home.firstLocal()));
+        if (memo != null) {
+            int value = home.firstLocal();
+            methodNode.instructions.add(new VarInsnNode(i.returnType().getOpcode(Opcodes.ISTORE), value));
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            methodNode.instructions.add(new VarInsnNode(i.returnType().getOpcode(Opcodes.ILOAD), value));
+            methodNode.instructions.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "memo" + memo, i.returnType().getDescriptor()));
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            methodNode.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.superName, "memoEpoch", "I"));
+            methodNode.instructions.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "memoAt" + memo, "I"));
+            methodNode.instructions.add(new VarInsnNode(i.returnType().getOpcode(Opcodes.ILOAD), value));
+        }
         methodNode.instructions.add(new InsnNode(i.returnType().getOpcode(Opcodes.IRETURN)));
+        scope = previous;
+        classNode.methods.add(methodNode);
+    }
+
+    private void createConstructors() {
+        MethodNode initMethod = new MethodNode();
+        initMethod.name = "<init>";
+        initMethod.access = Opcodes.ACC_PUBLIC;
+        initMethod.desc = "()V";
+        initMethod.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        initMethod.instructions.add(new LdcInsnNode(slotCount));
+        initMethod.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, "de/blazemcworld/fireflow/compiler/CompiledNode", "<init>", "(I)V"));
+        initMethod.instructions.add(new InsnNode(Opcodes.RETURN));
+        classNode.methods.add(initMethod);
+
+        MethodNode createMethod = new MethodNode();
+        createMethod.name = "create";
+        createMethod.access = Opcodes.ACC_PUBLIC;
+        createMethod.desc = "()Lde/blazemcworld/fireflow/compiler/CompiledNode;";
+        createMethod.instructions.add(new TypeInsnNode(Opcodes.NEW, classNode.name));
+        createMethod.instructions.add(new InsnNode(Opcodes.DUP));
+        createMethod.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, classNode.name, "<init>", "()V"));
+        createMethod.instructions.add(new InsnNode(Opcodes.ARETURN));
+        classNode.methods.add(createMethod);
+    }
+
+    private void createDispatch() {
+        MethodNode methodNode = new MethodNode();
+        methodNode.name = "dispatch";
+        methodNode.access = Opcodes.ACC_PROTECTED;
+        methodNode.desc = "(I)V";
+
+        LabelNode end = new LabelNode();
+        if (!roots.isEmpty()) {
+            LabelNode[] cases = new LabelNode[roots.size()];
+            for (int id = 0; id < cases.length; id++) cases[id] = new LabelNode();
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            methodNode.instructions.add(new TableSwitchInsnNode(0, cases.length - 1, end, cases));
+            for (int id = 0; id < cases.length; id++) {
+                Instruction root = roots.get(id);
+                methodNode.instructions.add(cases[id]);
+                methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                methodNode.instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, classNode.name, names.get(root), Type.getMethodDescriptor(root.returnType())));
+                if (root.returnType().getSize() == 1) methodNode.instructions.add(new InsnNode(Opcodes.POP));
+                if (root.returnType().getSize() == 2) methodNode.instructions.add(new InsnNode(Opcodes.POP2));
+                methodNode.instructions.add(new InsnNode(Opcodes.RETURN));
+            }
+        }
+        methodNode.instructions.add(end);
+        methodNode.instructions.add(new InsnNode(Opcodes.RETURN));
+        classNode.methods.add(methodNode);
+    }
+
+    private void createResume() {
+        MethodNode methodNode = new MethodNode();
+        methodNode.name = "resumeAt";
+        methodNode.access = Opcodes.ACC_PROTECTED;
+        methodNode.desc = "(I[Ljava/lang/Object;)V";
+
+        LabelNode end = new LabelNode();
+        if (!resumes.isEmpty()) {
+            LabelNode[] cases = new LabelNode[resumes.size()];
+            for (int id = 0; id < cases.length; id++) cases[id] = new LabelNode();
+            methodNode.instructions.add(new VarInsnNode(Opcodes.ILOAD, 1));
+            methodNode.instructions.add(new TableSwitchInsnNode(0, cases.length - 1, end, cases));
+            for (int id = 0; id < cases.length; id++) {
+                Instruction point = resumes.get(id);
+                Scope home = home(point);
+                MethodInsnNode call = new MethodInsnNode(Opcodes.INVOKEVIRTUAL, classNode.name, names.get(point), Type.getMethodDescriptor(point.returnType(), home.params()));
+                methodNode.instructions.add(cases[id]);
+                methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+                if (home.params().length > 0) {
+                    LabelNode detached = new LabelNode();
+                    methodNode.instructions.add(new VarInsnNode(Opcodes.ALOAD, 2));
+                    methodNode.instructions.add(new JumpInsnNode(Opcodes.IFNULL, detached));
+                    methodNode.instructions.add(restoreScope(home, 2));
+                    methodNode.instructions.add(call);
+                    methodNode.instructions.add(new InsnNode(Opcodes.RETURN));
+                    methodNode.instructions.add(detached);
+                    for (Type param : home.params()) methodNode.instructions.add(defaultValue(param));
+                    call = (MethodInsnNode) call.clone(null);
+                }
+                methodNode.instructions.add(call);
+                methodNode.instructions.add(new InsnNode(Opcodes.RETURN));
+            }
+        }
+        methodNode.instructions.add(end);
+        methodNode.instructions.add(new InsnNode(Opcodes.RETURN));
         classNode.methods.add(methodNode);
     }
 
-    public String markRoot(Instruction i) {
-        prepare(i);
-        uses.put(i, 999);
-        return names.computeIfAbsent(i, (_i) -> "m" + names.size());
+    private void memoize(NodeOutput output) {
+        if (!output.pure && !output.readOnly) return;
+        if (uses.get(output) <= 1 || constants.containsKey(output) || inlined.contains(output)) return;
+        if (home(output) != ROOT) return;
+        int id = memos.size();
+        memos.put(output, id);
+        classNode.fields.add(new FieldNode(Opcodes.ACC_PRIVATE, "memo" + id, output.returnType().getDescriptor(), null, null));
+        classNode.fields.add(new FieldNode(Opcodes.ACC_PRIVATE, "memoAt" + id, "I", null, null));
+    }
+
+    public InsnList split(InsnList code, int usedVars) {
+        return splitter.mark(code, usedVars);
+    }
+
+    public InsnList invalidateMemos() {
+        InsnList out = new InsnList();
+        if (memos.isEmpty()) return out;
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new InsnNode(Opcodes.DUP));
+        out.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.superName, "memoEpoch", "I"));
+        out.add(new InsnNode(Opcodes.ICONST_1));
+        out.add(new InsnNode(Opcodes.IADD));
+        out.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.superName, "memoEpoch", "I"));
+        return out;
+    }
+
+    public int markRoot(Instruction i) {
+        if (replay != null && replay.hasNext()) {
+            int id = replay.next();
+            rootIds.put(i, id);
+            while (roots.size() <= id) roots.add(null);
+            roots.set(id, i);
+            return id;
+        }
+        boolean traced = !compiling && preparing == 0;
+        prepareIn(i, ROOT);
+        names.computeIfAbsent(i, (_i) -> "m" + names.size());
+        int id = rootIds.computeIfAbsent(i, (_i) -> {
+            roots.add(i);
+            return roots.size() - 1;
+        });
+        if (traced) trace.add(id);
+        return id;
+    }
+
+    public int markResume(Instruction i) {
+        Integer known = resumeIds.get(i);
+        if (known != null) return known;
+        prepareIn(i, homes.containsKey(i) && homes.get(i) != scope ? ROOT : scope);
+        names.computeIfAbsent(i, (_i) -> "m" + names.size());
+        resumes.add(i);
+        resumeIds.put(i, resumes.size() - 1);
+        return resumes.size() - 1;
+    }
+
+    public InsnList captureContinuation(Instruction point) {
+        InsnList out = new InsnList();
+        if (home(point) != scope || scope.params.length == 0) {
+            out.add(new InsnNode(Opcodes.ACONST_NULL));
+            return out;
+        }
+        out.add(captureScope());
+        if (scope.owner instanceof FunctionDefinition) {
+            for (int i = 0; i < 2; i++) {
+                out.add(new InsnNode(Opcodes.DUP));
+                out.add(new LdcInsnNode(i));
+                out.add(new InsnNode(Opcodes.ICONST_M1));
+                out.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;"));
+                out.add(new InsnNode(Opcodes.AASTORE));
+            }
+        }
+        return out;
+    }
+
+    public void markLoop(Instruction loop, List<Instruction> body) {
+        if (collecting != null) return;
+        loops.put(loop, body);
+    }
+
+    public int loopLocals(Instruction loop) {
+        return hoists.getOrDefault(loop, List.of()).size();
+    }
+
+    public InsnList enterLoop(Instruction loop, int usedVars) {
+        InsnList out = new InsnList();
+        List<Instruction> values = hoists.getOrDefault(loop, List.of());
+        for (int i = 0; i < values.size(); i++) {
+            int hoist = hoisted.get(values.get(i));
+            LabelNode active = new LabelNode();
+            LabelNode next = new LabelNode();
+            out.add(loadHoistState(hoist));
+            out.add(new JumpInsnNode(Opcodes.IF_ICMPEQ, active));
+            out.add(loadHoistState(hoist));
+            out.add(new InsnNode(Opcodes.INEG));
+            out.add(new JumpInsnNode(Opcodes.IF_ICMPEQ, active));
+            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            out.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.superName, "loopEpoch", "I"));
+            out.add(new InsnNode(Opcodes.INEG));
+            out.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "hoistAt" + hoist, "I"));
+            out.add(new InsnNode(Opcodes.ICONST_1));
+            out.add(new VarInsnNode(Opcodes.ISTORE, usedVars + i));
+            out.add(new JumpInsnNode(Opcodes.GOTO, next));
+            out.add(active);
+            out.add(new InsnNode(Opcodes.ICONST_0));
+            out.add(new VarInsnNode(Opcodes.ISTORE, usedVars + i));
+            out.add(next);
+        }
+        return out;
+    }
+
+    public InsnList exitLoop(Instruction loop, int usedVars) {
+        InsnList out = new InsnList();
+        List<Instruction> values = hoists.getOrDefault(loop, List.of());
+        for (int i = 0; i < values.size(); i++) {
+            LabelNode kept = new LabelNode();
+            out.add(new VarInsnNode(Opcodes.ILOAD, usedVars + i));
+            out.add(new JumpInsnNode(Opcodes.IFEQ, kept));
+            out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            out.add(new InsnNode(Opcodes.ICONST_0));
+            out.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "hoistAt" + hoisted.get(values.get(i)), "I"));
+            out.add(kept);
+        }
+        return out;
+    }
+
+    private void hoist(Instruction loop, List<Instruction> body) {
+        boolean writes = false;
+        HashSet<Instruction> reached = new HashSet<>();
+        ArrayDeque<Instruction> queue = new ArrayDeque<>(body);
+        while (!queue.isEmpty()) {
+            Instruction i = queue.poll();
+            if (!reached.add(i) || constants.containsKey(i)) continue;
+            if (i instanceof NodeInput input && input.type == SignalValue.INSTANCE && !input.readOnly) writes = true;
+            queue.addAll(children(i));
+        }
+
+        List<Instruction> found = new ArrayList<>();
+        HashMap<Instruction, Boolean> invariant = new HashMap<>();
+        HashSet<Instruction> seen = new HashSet<>();
+        for (Instruction i : body) findInvariants(i, writes, invariant, seen, found);
+        if (found.isEmpty()) return;
+
+        for (Instruction value : found) {
+            hoisted.computeIfAbsent(value, (_value) -> {
+                int id = hoisted.size();
+                classNode.fields.add(new FieldNode(Opcodes.ACC_PRIVATE, "hoist" + id, value.returnType().getDescriptor(), null, null));
+                classNode.fields.add(new FieldNode(Opcodes.ACC_PRIVATE, "hoistAt" + id, "I", null, null));
+                return id;
+            });
+        }
+        hoists.put(loop, found);
+    }
+
+    private void findInvariants(Instruction i, boolean writes, HashMap<Instruction, Boolean> invariant, HashSet<Instruction> seen, List<Instruction> found) {
+        if (!seen.add(i) || constants.containsKey(i)) return;
+        if (i instanceof NodeOutput output && output.type != SignalValue.INSTANCE && invariant(output, writes, invariant)) {
+            found.add(output);
+            return;
+        }
+        for (Instruction child : children(i)) findInvariants(child, writes, invariant, seen, found);
+    }
+
+    private boolean invariant(Instruction i, boolean writes, HashMap<Instruction, Boolean> known) {
+        if (constants.containsKey(i)) return true;
+        if (known.containsKey(i)) return known.get(i);
+        known.put(i, false);
+        boolean result;
+        if (i instanceof NodeOutput output) {
+            result = output.type != SignalValue.INSTANCE && (output.pure || output.readOnly && !writes) && home(output) == ROOT;
+        } else {
+            result = !(i instanceof NodeInput input && input.type == SignalValue.INSTANCE);
+        }
+        if (result) {
+            for (Instruction child : children(i)) {
+                if (invariant(child, writes, known)) continue;
+                result = false;
+                break;
+            }
+        }
+        known.put(i, result);
+        return result;
+    }
+
+    public int rootCount() {
+        return roots.size();
+    }
+
+    public NodeCompiler promote(Collection<Integer> hot) {
+        String name = classNode.name.substring(classNode.name.lastIndexOf('/') + 1);
+        NodeCompiler ids = new NodeCompiler(name, evaluator);
+        for (Instruction root : roots) {
+            if (root != null) ids.markRoot(root);
+        }
+
+        NodeCompiler next = new NodeCompiler(name, evaluator);
+        next.internalSlots.putAll(internalSlots);
+        next.slotCount = slotCount;
+        next.roots.addAll(ids.roots);
+        next.rootIds.putAll(ids.rootIds);
+        next.optimizing = true;
+        for (int id : hot) {
+            if (id < next.roots.size()) next.markRoot(next.roots.get(id));
+        }
+        next.optimizing = false;
+        for (Instruction root : ids.roots) next.markRoot(root);
+        return next;
+    }
+
+    public int internalSlot(String id) {
+        if (replay != null && replay.hasNext()) {
+            int slot = replay.next();
+            internalSlots.put(id, slot);
+            slotCount = Math.max(slotCount, slot + 1);
+            return slot;
+        }
+        int slot = internalSlots.computeIfAbsent(id, (_id) -> slotCount++);
+        if (!compiling && preparing == 0) trace.add(slot);
+        return slot;
+    }
+
+    public List<Integer> trace() {
+        return trace;
+    }
+
+    public void replay(List<Integer> trace) {
+        replay = trace.iterator();
     }
 
     public void prepare(Instruction instruction) {
+        if (collecting != null) {
+            collecting.add(instruction);
+            return;
+        }
         uses.put(instruction, uses.getOrDefault(instruction, 0) + 1);
-        if (uses.get(instruction) == 1) instruction.prepare(this);
+        if (optimizing) optimized.add(instruction);
+        Scope home = homes.putIfAbsent(instruction, scope);
+        if (home != null && home != scope) homes.put(instruction, ROOT);
+        if (uses.get(instruction) != 1) return;
+        preparing++;
+        instruction.prepare(this);
+        preparing--;
+    }
+
+    public void prepareIn(Instruction instruction, Scope in) {
+        if (collecting != null) {
+            collecting.add(instruction);
+            return;
+        }
+        Scope previous = scope;
+        scope = in;
+        prepare(instruction);
+        scope = previous;
+        uses.put(instruction, 999);
+        homes.put(instruction, in);
+    }
+
+    public void checkCpu(Instruction entry) {
+        checked.add(entry);
+    }
+
+    public void inline(Instruction i) {
+        inlined.add(i);
     }
 
     public InsnList compile(Instruction i, int usedVars) {
-        if (uses.get(i) <= 1) return i.compile(this, usedVars);
+        Integer hoist = hoisted.get(i);
+        if (hoist == null) return compileDirect(i, usedVars);
+
+        Type type = i.returnType();
+        LabelNode compute = new LabelNode();
+        LabelNode shared = new LabelNode();
+        LabelNode done = new LabelNode();
+        InsnList out = new InsnList();
+        out.add(loadHoistState(hoist));
+        out.add(new JumpInsnNode(Opcodes.IF_ICMPNE, compute));
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.name, "hoist" + hoist, type.getDescriptor()));
+        out.add(new JumpInsnNode(Opcodes.GOTO, done));
+        out.add(compute);
+        out.add(compileDirect(i, usedVars));
+        out.add(new VarInsnNode(type.getOpcode(Opcodes.ISTORE), usedVars));
+        out.add(loadHoistState(hoist));
+        out.add(new InsnNode(Opcodes.INEG));
+        out.add(new JumpInsnNode(Opcodes.IF_ICMPNE, shared));
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new VarInsnNode(type.getOpcode(Opcodes.ILOAD), usedVars));
+        out.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "hoist" + hoist, type.getDescriptor()));
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.superName, "loopEpoch", "I"));
+        out.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "hoistAt" + hoist, "I"));
+        out.add(shared);
+        out.add(new VarInsnNode(type.getOpcode(Opcodes.ILOAD), usedVars));
+        out.add(done);
+        return out;
+    }
+
+    private InsnList loadHoistState(int hoist) {
+        InsnList out = new InsnList();
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.name, "hoistAt" + hoist, "I"));
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.superName, "loopEpoch", "I"));
+        return out;
+    }
+
+    private InsnList compileDirect(Instruction i, int usedVars) {
+        if (constants.containsKey(i)) {
+            InsnList out = new InsnList();
+            out.add(new LdcInsnNode(constants.get(i)));
+            return out;
+        }
+        if (pending.containsKey(i)) {
+            InsnList out = new InsnList();
+            out.add(new MethodInsnNode(Opcodes.INVOKESTATIC, classNode.name + "$Constant", "c" + pending.get(i), "()" + i.returnType().getDescriptor()));
+            return out;
+        }
+        if (uses.get(i) <= 1 || inlined.contains(i)) return i.compile(this, usedVars);
+        InsnList out = new InsnList();
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        out.add(loadScope(homes.getOrDefault(i, ROOT)));
+        out.add(invoke(i));
+        return out;
+    }
+
+    public MethodInsnNode invoke(Instruction i) {
         String name = names.computeIfAbsent(i, (_i) -> "m" + names.size());
         createMethod(i);
+        return new MethodInsnNode(Opcodes.INVOKEVIRTUAL, classNode.name, name, Type.getMethodDescriptor(i.returnType(), home(i).params()));
+    }
+
+    public Scope home(Instruction i) {
+        return homes.getOrDefault(i, ROOT);
+    }
+
+    public Scope scope() {
+        return scope;
+    }
+
+    public Scope functionScope(Object owner, Type... params) {
+        return scopes.computeIfAbsent(owner, (_owner) -> new Scope(owner, params));
+    }
+
+    public int callSite(Object owner, Object call) {
+        List<Object> list = sites.computeIfAbsent(owner, (_owner) -> new ArrayList<>());
+        int id = list.indexOf(call);
+        if (id != -1) return id;
+        list.add(call);
+        return list.size() - 1;
+    }
+
+    public List<Object> callSites(Object owner) {
+        return sites.getOrDefault(owner, List.of());
+    }
+
+    public int paramSlot(Scope in, int index) {
+        if (scope != in) return -1;
+        int slot = 1;
+        for (int i = 0; i < index; i++) slot += in.params[i].getSize();
+        return slot;
+    }
+
+    private InsnList loadScope(Scope target) {
         InsnList out = new InsnList();
-        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
-        out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, classNode.name, name, Type.getMethodDescriptor(i.returnType())));
+        for (int i = 0; i < target.params.length; i++) {
+            int slot = paramSlot(target, i);
+            if (slot == -1) {
+                out.add(defaultValue(target.params[i]));
+            } else {
+                out.add(new VarInsnNode(target.params[i].getOpcode(Opcodes.ILOAD), slot));
+            }
+        }
+        return out;
+    }
+
+    public InsnList captureScope() {
+        InsnList out = new InsnList();
+        out.add(new LdcInsnNode(scope.params.length));
+        out.add(new TypeInsnNode(Opcodes.ANEWARRAY, "java/lang/Object"));
+        for (int i = 0; i < scope.params.length; i++) {
+            Type type = scope.params[i];
+            out.add(new InsnNode(Opcodes.DUP));
+            out.add(new LdcInsnNode(i));
+            out.add(new VarInsnNode(type.getOpcode(Opcodes.ILOAD), paramSlot(scope, i)));
+            if (type.getSort() != Type.OBJECT && type.getSort() != Type.ARRAY) {
+                Type boxed = boxed(type);
+                out.add(new MethodInsnNode(Opcodes.INVOKESTATIC, boxed.getInternalName(), "valueOf", Type.getMethodDescriptor(boxed, type)));
+            }
+            out.add(new InsnNode(Opcodes.AASTORE));
+        }
+        return out;
+    }
+
+    public InsnList restoreScope(Scope target, int frameVar) {
+        InsnList out = new InsnList();
+        for (int i = 0; i < target.params.length; i++) {
+            Type type = target.params[i];
+            out.add(new VarInsnNode(Opcodes.ALOAD, frameVar));
+            out.add(new LdcInsnNode(i));
+            out.add(new InsnNode(Opcodes.AALOAD));
+            if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+                out.add(new TypeInsnNode(Opcodes.CHECKCAST, type.getInternalName()));
+            } else {
+                Type boxed = boxed(type);
+                out.add(new TypeInsnNode(Opcodes.CHECKCAST, boxed.getInternalName()));
+                out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, boxed.getInternalName(), type.getClassName() + "Value", Type.getMethodDescriptor(type)));
+            }
+        }
+        return out;
+    }
+
+    private static Type boxed(Type primitive) {
+        return switch (primitive.getSort()) {
+            case Type.BOOLEAN -> Type.getType(Boolean.class);
+            case Type.INT -> Type.getType(Integer.class);
+            case Type.LONG -> Type.getType(Long.class);
+            case Type.FLOAT -> Type.getType(Float.class);
+            case Type.DOUBLE -> Type.getType(Double.class);
+            default -> throw new IllegalArgumentException("Unsupported parameter type " + primitive);
+        };
+    }
+
+    private static InsnList defaultValue(Type type) {
+        InsnList out = new InsnList();
+        switch (type.getSort()) {
+            case Type.OBJECT, Type.ARRAY -> out.add(new InsnNode(Opcodes.ACONST_NULL));
+            case Type.DOUBLE -> out.add(new InsnNode(Opcodes.DCONST_0));
+            case Type.LONG -> out.add(new InsnNode(Opcodes.LCONST_0));
+            case Type.FLOAT -> out.add(new InsnNode(Opcodes.FCONST_0));
+            case Type.INT -> out.add(new InsnNode(Opcodes.ICONST_M1));
+            default -> out.add(new InsnNode(Opcodes.ICONST_0));
+        }
+        return out;
+    }
+
+    private boolean fold(NodeOutput output) {
+        if (pending.containsKey(output)) return true;
+        if (notConstant.contains(output)) return false;
+        Type type = output.returnType();
+        boolean constantType = type.equals(Type.DOUBLE_TYPE) || type.equals(Type.BOOLEAN_TYPE) || type.equals(Type.getType(String.class));
+        if (!output.pure || !constantType || !foldable(output, output)) {
+            notConstant.add(output);
+            return false;
+        }
+        pending.put(output, pending.size());
+        return true;
+    }
+
+    private boolean foldable(Instruction i, NodeOutput root) {
+        if (pending.containsKey(i)) return true;
+        if (i instanceof NodeOutput output && output != root) {
+            if (fold(output)) return true;
+            if (!output.pure) return false;
+        }
+        if (i != root && uses.getOrDefault(i, 0) > 1) return false;
+        for (Instruction child : children(i)) {
+            if (!foldable(child, root)) return false;
+        }
+        return true;
+    }
+
+    private List<Instruction> children(Instruction i) {
+        List<Instruction> previous = collecting;
+        collecting = new ArrayList<>();
+        i.prepare(this);
+        List<Instruction> out = collecting;
+        collecting = previous;
         return out;
     }
+
+    private void evaluate() {
+        if (pending.isEmpty()) return;
+        ClassNode constant = new ClassNode();
+        constant.access = Opcodes.ACC_PUBLIC;
+        constant.name = classNode.name + "$Constant";
+        constant.version = Opcodes.V21;
+        constant.superName = "java/lang/Object";
+
+        for (Map.Entry<Instruction, Integer> entry : pending.entrySet()) {
+            Type type = entry.getKey().returnType();
+            MethodNode method = new MethodNode();
+            method.name = "c" + entry.getValue();
+            method.access = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+            method.desc = "()" + type.getDescriptor();
+            method.instructions.add(entry.getKey().compile(this, 0));
+            method.instructions.add(new InsnNode(type.getOpcode(Opcodes.IRETURN)));
+            constant.methods.add(method);
+        }
+
+        for (MethodNode m : constant.methods) {
+            for (AbstractInsnNode i : m.instructions) {
+                if (i instanceof LabelNode l) l.resetLabel();
+            }
+        }
+
+        Class<?> clazz = null;
+        try {
+            ClassWriter w = new ClassWriter(ClassWriter.COMPUTE_FRAMES + ClassWriter.COMPUTE_MAXS);
+            constant.accept(w);
+            clazz = CompiledClasses.define(w.toByteArray());
+        } catch (Exception | LinkageError ignored) {
+        }
+
+        for (Map.Entry<Instruction, Integer> entry : pending.entrySet()) {
+            Object value = null;
+            try {
+                if (clazz != null) value = clazz.getMethod("c" + entry.getValue()).invoke(null);
+            } catch (Exception | LinkageError ignored) {
+            }
+            if (value == null) notConstant.add(entry.getKey());
+            else constants.put(entry.getKey(), value);
+        }
+        pending.clear();
+    }
+
+    public record Scope(Object owner, Type[] params) {
+        public int firstLocal() {
+            int slot = 1;
+            for (Type param : params) slot += param.getSize();
+            return slot;
+        }
+    }
 }
@@ -0,0 +1,195 @@
+package de.blazemcworld.fireflow.compiler;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class Peephole {
+
+    private static final Map<String, String> BOXES = Map.of(
+            "java/lang/Double", "doubleValue",
+            "java/lang/Boolean", "booleanValue",
+            "java/lang/Integer", "intValue",
+            "java/lang/Long", "longValue",
+            "java/lang/Float", "floatValue"
+    );
+
+    public static int optimize(MethodNode method) {
+        int before = count(method.instructions);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Set<LabelNode> targets = targets(method);
+            AbstractInsnNode insn = method.instructions.getFirst();
+            while (insn != null) {
+                AbstractInsnNode previous = insn.getPrevious();
+                if (insn.getOpcode() >= 0 && rewrite(method.instructions, insn, targets)) {
+                    changed = true;
+                    insn = previous != null ? previous : method.instructions.getFirst();
+                } else {
+                    insn = insn.getNext();
+                }
+            }
+            if (changed) BranchPruner.prune(method);
+        }
+        return before - count(method.instructions);
+    }
+
+    private static boolean rewrite(InsnList insns, AbstractInsnNode insn, Set<LabelNode> targets) {
+        int op = insn.getOpcode();
+        if (insn instanceof JumpInsnNode jump && op == Opcodes.GOTO && jumpsToNext(jump)) {
+            insns.remove(jump);
+            return true;
+        }
+
+        AbstractInsnNode next = next(insn, targets);
+        if (next == null) return false;
+
+        if (next.getOpcode() == Opcodes.POP && (op == Opcodes.DUP || pushesSingle(insn))
+                || next.getOpcode() == Opcodes.POP2 && (op == Opcodes.DUP2 || pushesDouble(insn))) {
+            insns.remove(insn);
+            insns.remove(next);
+            return true;
+        }
+
+        if (next instanceof TypeInsnNode cast && cast.getOpcode() == Opcodes.CHECKCAST && cast.desc.equals(produces(insn))) {
+            insns.remove(cast);
+            return true;
+        }
+
+        if (isBox(insn) && next instanceof MethodInsnNode unbox && isUnbox(unbox, (MethodInsnNode) insn)) {
+            insns.remove(insn);
+            insns.remove(unbox);
+            return true;
+        }
+
+        if (isBox(insn) && next.getOpcode() == Opcodes.DUP && next(next, targets) instanceof TypeInsnNode check
+                && check.getOpcode() == Opcodes.INSTANCEOF && isAssignable(check.desc, ((MethodInsnNode) insn).owner)) {
+            insns.remove(next);
+            insns.set(check, new InsnNode(Opcodes.ICONST_1));
+            return true;
+        }
+
+        if (op >= Opcodes.ICONST_M1 && op <= Opcodes.ICONST_5 && next instanceof JumpInsnNode jump
+                && jump.getOpcode() >= Opcodes.IFEQ && jump.getOpcode() <= Opcodes.IFLE) {
+            insns.remove(insn);
+            if (taken(jump.getOpcode(), op - Opcodes.ICONST_0)) {
+                insns.set(jump, new JumpInsnNode(Opcodes.GOTO, jump.label));
+            } else {
+                insns.remove(jump);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static AbstractInsnNode next(AbstractInsnNode insn, Set<LabelNode> targets) {
+        AbstractInsnNode next = insn.getNext();
+        while (next != null && next.getOpcode() < 0) {
+            if (next instanceof LabelNode label && targets.contains(label)) return null;
+            next = next.getNext();
+        }
+        return next;
+    }
+
+    private static boolean jumpsToNext(JumpInsnNode jump) {
+        for (AbstractInsnNode next = jump.getNext(); next != null && next.getOpcode() < 0; next = next.getNext()) {
+            if (next == jump.label) return true;
+        }
+        return false;
+    }
+
+    private static boolean pushesSingle(AbstractInsnNode insn) {
+        int op = insn.getOpcode();
+        if (op == Opcodes.ILOAD || op == Opcodes.FLOAD || op == Opcodes.ALOAD) return true;
+        if (op >= Opcodes.ACONST_NULL && op <= Opcodes.ICONST_5) return true;
+        if (op == Opcodes.FCONST_0 || op == Opcodes.FCONST_1 || op == Opcodes.FCONST_2) return true;
+        if (op == Opcodes.BIPUSH || op == Opcodes.SIPUSH) return true;
+        return insn instanceof LdcInsnNode ldc && !(ldc.cst instanceof Long) && !(ldc.cst instanceof Double);
+    }
+
+    private static boolean pushesDouble(AbstractInsnNode insn) {
+        int op = insn.getOpcode();
+        if (op == Opcodes.LLOAD || op == Opcodes.DLOAD) return true;
+        if (op == Opcodes.LCONST_0 || op == Opcodes.LCONST_1 || op == Opcodes.DCONST_0 || op == Opcodes.DCONST_1) return true;
+        return insn instanceof LdcInsnNode ldc && (ldc.cst instanceof Long || ldc.cst instanceof Double);
+    }
+
+    private static String produces(AbstractInsnNode insn) {
+        Type type = switch (insn) {
+            case MethodInsnNode m -> Type.getReturnType(m.desc);
+            case FieldInsnNode f when f.getOpcode() == Opcodes.GETFIELD || f.getOpcode() == Opcodes.GETSTATIC -> Type.getType(f.desc);
+            case TypeInsnNode t when t.getOpcode() == Opcodes.NEW || t.getOpcode() == Opcodes.CHECKCAST -> Type.getObjectType(t.desc);
+            case LdcInsnNode ldc when ldc.cst instanceof String -> Type.getType(String.class);
+            default -> null;
+        };
+        if (type == null || type.getSort() != Type.OBJECT) return null;
+        return type.getInternalName();
+    }
+
+    private static boolean isBox(AbstractInsnNode insn) {
+        return insn instanceof MethodInsnNode m && m.getOpcode() == Opcodes.INVOKESTATIC && m.name.equals("valueOf")
+                && BOXES.containsKey(m.owner) && Type.getReturnType(m.desc).getInternalName().equals(m.owner)
+                && Type.getArgumentTypes(m.desc).length == 1 && Type.getArgumentTypes(m.desc)[0].getSort() != Type.OBJECT;
+    }
+
+    private static boolean isUnbox(MethodInsnNode unbox, MethodInsnNode box) {
+        return unbox.getOpcode() == Opcodes.INVOKEVIRTUAL && unbox.owner.equals(box.owner)
+                && unbox.name.equals(BOXES.get(box.owner))
+                && Type.getReturnType(unbox.desc).equals(Type.getArgumentTypes(box.desc)[0]);
+    }
+
+    private static boolean isAssignable(String type, String box) {
+        if (type.equals(box) || type.equals("java/lang/Object")) return true;
+        return type.equals("java/lang/Number") && !box.equals("java/lang/Boolean");
+    }
+
+    private static boolean taken(int op, int value) {
+        return switch (op) {
+            case Opcodes.IFEQ -> value == 0;
+            case Opcodes.IFNE -> value != 0;
+            case Opcodes.IFLT -> value < 0;
+            case Opcodes.IFGE -> value >= 0;
+            case Opcodes.IFGT -> value > 0;
+            default -> value <= 0;
+        };
+    }
+
+    private static Set<LabelNode> targets(MethodNode method) {
+        Set<LabelNode> out = new HashSet<>();
+        for (AbstractInsnNode insn : method.instructions) {
+            switch (insn) {
+                case JumpInsnNode jump -> out.add(jump.label);
+                case TableSwitchInsnNode table -> {
+                    out.add(table.dflt);
+                    out.addAll(table.labels);
+                }
+                case LookupSwitchInsnNode lookup -> {
+                    out.add(lookup.dflt);
+                    out.addAll(lookup.labels);
+                }
+                default -> {}
+            }
+        }
+        if (method.tryCatchBlocks != null) {
+            for (TryCatchBlockNode block : method.tryCatchBlocks) {
+                out.add(block.start);
+                out.add(block.end);
+                out.add(block.handler);
+            }
+        }
+        return out;
+    }
+
+    private static int count(InsnList insns) {
+        int count = 0;
+        for (AbstractInsnNode insn : insns) {
+            if (insn.getOpcode() >= 0) count++;
+        }
+        return count;
+    }
+}
@@ -1,19 +1,15 @@
 package de.blazemcworld.fireflow.compiler;
 
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
-import de.blazemcworld.fireflow.compiler.instruction.MultiInstruction;
-import de.blazemcworld.fireflow.compiler.instruction.RawInstruction;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeInput;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.value.SignalValue;
 import de.blazemcworld.fireflow.value.StructValue;
+import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
-import org.objectweb.asm.tree.InsnNode;
-import org.objectweb.asm.tree.IntInsnNode;
-import org.objectweb.asm.tree.LdcInsnNode;
-import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.*;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -60,46 +56,141 @@ public final class StructDefinition {
         }
     }
 
+    public byte[] compileClass() {
+        ClassNode classNode = new ClassNode();
+        classNode.version = Opcodes.V21;
+        classNode.access = Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL;
+        classNode.name = type.className();
+        classNode.superName = Type.getInternalName(CompiledStruct.class);
+
+        Type[] fieldTypes = new Type[type.fields.size()];
+        for (int i = 0; i < fieldTypes.length; i++) {
+            fieldTypes[i] = type.fields.get(i).type().getType();
+            classNode.fields.add(new FieldNode(Opcodes.ACC_PUBLIC, "f" + i, fieldTypes[i].getDescriptor(), null, null));
+        }
+
+        MethodNode empty = new MethodNode(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        empty.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        empty.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, classNode.superName, "<init>", "()V"));
+        for (int i = 0; i < fieldTypes.length; i++) {
+            empty.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            empty.instructions.add(type.fields.get(i).type().compile(null, null));
+            empty.instructions.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "f" + i, fieldTypes[i].getDescriptor()));
+        }
+        empty.instructions.add(new InsnNode(Opcodes.RETURN));
+        classNode.methods.add(empty);
+
+        MethodNode filled = new MethodNode(Opcodes.ACC_PUBLIC, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, fieldTypes), null, null);
+        filled.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        filled.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, classNode.superName, "<init>", "()V"));
+        int slot = 1;
+        for (int i = 0; i < fieldTypes.length; i++) {
+            filled.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            filled.instructions.add(new VarInsnNode(fieldTypes[i].getOpcode(Opcodes.ILOAD), slot));
+            filled.instructions.add(new FieldInsnNode(Opcodes.PUTFIELD, classNode.name, "f" + i, fieldTypes[i].getDescriptor()));
+            slot += fieldTypes[i].getSize();
+        }
+        filled.instructions.add(new InsnNode(Opcodes.RETURN));
+        if (fieldTypes.length > 0) classNode.methods.add(filled);
+
+        MethodNode name = new MethodNode(Opcodes.ACC_PUBLIC, "structName", "()Ljava/lang/String;", null, null);
+        name.instructions.add(new LdcInsnNode(type.getName()));
+        name.instructions.add(new InsnNode(Opcodes.ARETURN));
+        classNode.methods.add(name);
+
+        MethodNode values = new MethodNode(Opcodes.ACC_PUBLIC, "values", "()[Ljava/lang/Object;", null, null);
+        values.instructions.add(new IntInsnNode(Opcodes.BIPUSH, fieldTypes.length));
+        values.instructions.add(new TypeInsnNode(Opcodes.ANEWARRAY, "java/lang/Object"));
+        for (int i = 0; i < fieldTypes.length; i++) {
+            values.instructions.add(new InsnNode(Opcodes.DUP));
+            values.instructions.add(new LdcInsnNode(i));
+            values.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+            values.instructions.add(new FieldInsnNode(Opcodes.GETFIELD, classNode.name, "f" + i, fieldTypes[i].getDescriptor()));
+            if (fieldTypes[i].getSort() == Type.DOUBLE) {
+                values.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Double", "valueOf", "(D)Ljava/lang/Double;"));
+            } else if (fieldTypes[i].getSort() == Type.BOOLEAN) {
+                values.instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;"));
+            }
+            values.instructions.add(new InsnNode(Opcodes.AASTORE));
+        }
+        values.instructions.add(new InsnNode(Opcodes.ARETURN));
+        classNode.methods.add(values);
+
+        ClassWriter w = new ClassWriter(ClassWriter.COMPUTE_FRAMES + ClassWriter.COMPUTE_MAXS);
+        classNode.accept(w);
+        return w.toByteArray();
+    }
+
     public class Create extends Node {
-        public final FunctionDefinition.Call funcCall;
+        private final FunctionDefinition.Call defCall;
+        private int structSlot;
+
         public Create() {
             super(stName);
 
-            int size = initializer.fnInputs.size() - 1;
-            ArrayList<NodeOutput> createInputs = new ArrayList<>(size);
-            for (int i = 0; i < size; i++) {
+            defCall = initializer.createCall();
+            Type[] fieldTypes = new Type[type.fields.size()];
+            List<NodeInput> fields = new ArrayList<>(fieldTypes.length);
+            for (int i = 0; i < fieldTypes.length; i++) {
                 NodeOutput in = initializer.fnInputs.get(i + 1);
-                createInputs.add(new NodeOutput(in.getName(), in.type));
-            }
+                fieldTypes[i] = in.returnType();
+                fields.add(input(in.getName(), in.type));
 
-            FunctionDefinition.Call defCall = initializer.createCall();
-            NodeOutput struct = new NodeOutput(stName, type);
-            Instruction[] instructions = new Instruction[size + 2];
-            instructions[0] = defCall.inputs.getFirst();
-            instructions[1] = new RawInstruction(type.getType(),
-                    new IntInsnNode(Opcodes.BIPUSH, size),
-                    new TypeInsnNode(Opcodes.ANEWARRAY, "java/lang/Object")
-            );
-            for (int i = 0; i < size; i++) {
-                NodeOutput out = createInputs.get(i);
-                defCall.inputs.get(i + 1).connectValue(out);
-                instructions[i + 2] = new MultiInstruction(Type.VOID_TYPE,
-                        new RawInstruction(Type.VOID_TYPE,
-                                new InsnNode(Opcodes.DUP),
-                                new LdcInsnNode(i)
-                        ),
-                        out.getType().wrapPrimitive(out),
-                        new RawInstruction(Type.VOID_TYPE, new InsnNode(Opcodes.AASTORE))
-                );
+                String field = "f" + i;
+                String desc = fieldTypes[i].getDescriptor();
+                NodeOutput read = new NodeOutput(in.getName(), in.type);
+                read.setInstruction(new Instruction() {
+                    @Override
+                    public void prepare(NodeCompiler ctx) {}
+
+                    @Override
+                    public InsnList compile(NodeCompiler ctx, int usedVars) {
+                        InsnList out = new InsnList();
+                        out.add(new VarInsnNode(Opcodes.ALOAD, structSlot));
+                        out.add(new FieldInsnNode(Opcodes.GETFIELD, type.className(), field, desc));
+                        return out;
+                    }
+
+                    @Override
+                    public Type returnType() {
+                        return in.returnType();
+                    }
+                });
+                defCall.inputs.get(i + 1).connectValue(read);
             }
 
-            struct.setInstruction(new MultiInstruction(type.getType(), instructions));
-            NodeInput createOut = new NodeInput(stName, type);
-            createOut.connectValue(struct);
+            output(stName, type).setInstruction(new Instruction() {
+                @Override
+                public void prepare(NodeCompiler ctx) {
+                    for (NodeInput each : fields) ctx.prepare(each);
+                    if (hasInitializer()) ctx.prepare(defCall.inputs.getFirst());
+                }
+
+                @Override
+                public InsnList compile(NodeCompiler ctx, int usedVars) {
+                    InsnList out = new InsnList();
+                    out.add(new TypeInsnNode(Opcodes.NEW, type.className()));
+                    out.add(new InsnNode(Opcodes.DUP));
+                    for (NodeInput each : fields) out.add(ctx.compile(each, usedVars));
+                    out.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, type.className(), "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, fieldTypes)));
+                    if (hasInitializer()) {
+                        structSlot = usedVars;
+                        out.add(new InsnNode(Opcodes.DUP));
+                        out.add(new VarInsnNode(Opcodes.ASTORE, usedVars));
+                        out.add(ctx.compile(defCall.inputs.getFirst(), usedVars + 1));
+                    }
+                    return out;
+                }
+
+                @Override
+                public Type returnType() {
+                    return type.getType();
+                }
+            });
+        }
 
-            funcCall = new FunctionDefinition("Create " + stName, createInputs, List.of(createOut)).createCall();
-            inputs = funcCall.inputs;
-            outputs = funcCall.outputs;
+        private boolean hasInitializer() {
+            return initializer.fnInputs.getFirst().target != null;
         }
 
         public StructDefinition getDefinition() {
@@ -0,0 +1,124 @@
+package de.blazemcworld.fireflow.compiler;
+
+import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.NodeInput;
+import de.blazemcworld.fireflow.node.NodeList;
+import de.blazemcworld.fireflow.node.NodeOutput;
+import de.blazemcworld.fireflow.value.AllValues;
+import de.blazemcworld.fireflow.value.SignalValue;
+import de.blazemcworld.fireflow.value.StructValue;
+import net.minestom.server.network.NetworkBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+public class SubgraphHash {
+
+    private static byte[] nodeClasses;
+    private final HashMap<Object, Node> owners = new HashMap<>();
+    private final byte[] salt;
+
+    public SubgraphHash(List<Node> nodes, List<StructDefinition> structs) {
+        for (Node node : nodes) {
+            addOwner(node);
+            if (node instanceof FunctionDefinition.Call call) {
+                addOwner(call.getDefinition().fnInputsNode);
+                addOwner(call.getDefinition().fnOutputsNode);
+            }
+        }
+
+        NetworkBuffer buffer = new NetworkBuffer();
+        for (String node : new TreeSet<>(NodeList.nodes.keySet())) buffer.write(NetworkBuffer.STRING, node);
+        buffer.write(NetworkBuffer.INT, NodeCompiler.VERSION);
+        buffer.write(NetworkBuffer.RAW_BYTES, nodeClasses());
+        for (StructDefinition st : structs) {
+            buffer.write(NetworkBuffer.STRING, st.stName);
+            buffer.write(NetworkBuffer.INT, st.type.fields.size());
+            for (StructValue.Field field : st.type.fields) {
+                buffer.write(NetworkBuffer.STRING, field.name());
+                AllValues.writeValue(buffer, field.type());
+            }
+        }
+        salt = buffer.readBytes(buffer.writeIndex());
+    }
+
+    private static synchronized byte[] nodeClasses() {
+        if (nodeClasses != null) return nodeClasses;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String node : new TreeSet<>(NodeList.nodes.keySet())) {
+                digest.update(Node.digest(NodeList.nodes.get(node).get().getClass()));
+            }
+            nodeClasses = digest.digest();
+            return nodeClasses;
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    private void addOwner(Node node) {
+        for (NodeInput input : node.inputs) owners.put(input, node);
+        for (NodeOutput output : node.outputs) owners.put(output, node);
+    }
+
+    public String of(Node root) {
+        List<Node> order = new ArrayList<>();
+        HashMap<Node, Integer> ids = new HashMap<>();
+        order.add(root);
+        ids.put(root, 0);
+
+        NetworkBuffer buffer = new NetworkBuffer();
+        for (int i = 0; i < order.size(); i++) {
+            Node node = order.get(i);
+            buffer.write(NetworkBuffer.STRING, node.getClass().getName());
+            buffer.write(NetworkBuffer.STRING, node.getBaseName());
+            node.writeData(buffer);
+
+            buffer.write(NetworkBuffer.INT, node.inputs.size());
+            for (NodeInput input : node.inputs) {
+                buffer.write(NetworkBuffer.STRING, input.getName());
+                AllValues.writeValue(buffer, input.type);
+                writeLink(buffer, input.getSource(), order, ids);
+            }
+            buffer.write(NetworkBuffer.INT, node.outputs.size());
+            for (NodeOutput output : node.outputs) {
+                buffer.write(NetworkBuffer.STRING, output.getName());
+                AllValues.writeValue(buffer, output.type);
+                if (output.type == SignalValue.INSTANCE) writeLink(buffer, output.target, order, ids);
+            }
+
+            if (node instanceof FunctionDefinition.Call call) {
+                buffer.write(NetworkBuffer.INT, visit(call.getDefinition().fnInputsNode, order, ids));
+                buffer.write(NetworkBuffer.INT, visit(call.getDefinition().fnOutputsNode, order, ids));
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(buffer.readBytes(buffer.writeIndex()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException err) {
+            throw new IllegalStateException(err);
+        }
+    }
+
+    private void writeLink(NetworkBuffer buffer, Object port, List<Node> order, HashMap<Node, Integer> ids) {
+        Node owner = port == null ? null : owners.get(port);
+        if (owner == null) {
+            buffer.write(NetworkBuffer.INT, -1);
+            return;
+        }
+        buffer.write(NetworkBuffer.INT, visit(owner, order, ids));
+        buffer.write(NetworkBuffer.INT, port instanceof NodeInput input ? owner.inputs.indexOf(input) : owner.outputs.indexOf(port));
+    }
+
+    private static int visit(Node node, List<Node> order, HashMap<Node, Integer> ids) {
+        return ids.computeIfAbsent(node, (_node) -> {
+            order.add(node);
+            return order.size() - 1;
+        });
+    }
+}
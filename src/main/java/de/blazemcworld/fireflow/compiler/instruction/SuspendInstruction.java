@@ -0,0 +1,47 @@
+package de.blazemcworld.fireflow.compiler.instruction;
+
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record SuspendInstruction(String method, Instruction resume, Instruction now, Instruction... arguments) implements Instruction {
+
+    @Override
+    public void prepare(NodeCompiler ctx) {
+        for (Instruction arg : arguments) {
+            ctx.prepare(arg);
+        }
+        ctx.markResume(resume);
+        if (now != null) ctx.prepare(now);
+    }
+
+    @Override
+    public InsnList compile(NodeCompiler ctx, int usedVars) {
+        InsnList out = new InsnList();
+        out.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        List<Type> paramTypes = new ArrayList<>();
+        for (Instruction arg : arguments) {
+            paramTypes.add(arg.returnType());
+            out.add(ctx.compile(arg, usedVars));
+        }
+        paramTypes.add(Type.INT_TYPE);
+        paramTypes.add(Type.getType(Object[].class));
+        out.add(new LdcInsnNode(ctx.markResume(resume)));
+        out.add(ctx.captureContinuation(resume));
+        out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, "de/blazemcworld/fireflow/compiler/CompiledNode", method, Type.getMethodDescriptor(Type.VOID_TYPE, paramTypes.toArray(new Type[0]))));
+        if (now != null) out.add(ctx.compile(now, usedVars));
+        return out;
+    }
+
+    @Override
+    public Type returnType() {
+        return Type.VOID_TYPE;
+    }
+}
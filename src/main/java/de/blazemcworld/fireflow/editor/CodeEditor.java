@@ -13,9 +13,7 @@ import de.blazemcworld.fireflow.node.*;
 import de.blazemcworld.fireflow.space.Space;
 import de.blazemcworld.fireflow.util.PlayerExitInstanceEvent;
 import de.blazemcworld.fireflow.value.AllValues;
-import de.blazemcworld.fireflow.value.SignalValue;
 import de.blazemcworld.fireflow.value.StructValue;
-import de.blazemcworld.fireflow.value.Value;
 import net.minestom.server.coordinate.Pos;
 import net.minestom.server.coordinate.Vec;
 import net.minestom.server.entity.Entity;
@@ -31,13 +29,11 @@ import net.minestom.server.network.NetworkBuffer;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.function.Supplier;
 
 public class CodeEditor {
 
@@ -181,6 +177,15 @@ public class CodeEditor {
     }
 
     public void save() {
+        try {
+            if (!Files.exists(filePath.getParent())) Files.createDirectories(filePath.getParent());
+            Files.write(filePath, serialize());
+        } catch (IOException err) {
+            FireFlow.LOGGER.error("Failed to save code file!", err);
+        }
+    }
+
+    public byte[] serialize() {
         NetworkBuffer buffer = new NetworkBuffer();
         buffer.write(NetworkBuffer.INT, 2); // version
 
@@ -243,12 +248,7 @@ public class CodeEditor {
             }
         }
 
-        try {
-            if (!Files.exists(filePath.getParent())) Files.createDirectories(filePath.getParent());
-            Files.write(filePath, buffer.readBytes(buffer.writeIndex()));
-        } catch (IOException err) {
-            FireFlow.LOGGER.error("Failed to save code file!", err);
-        }
+        return buffer.readBytes(buffer.writeIndex());
     }
 
     public void load() {
@@ -257,119 +257,39 @@ public class CodeEditor {
         }
         widgets.clear();
 
-        NetworkBuffer buffer;
-        int length;
+        CodeSnapshot snapshot;
         try {
             if (!Files.exists(filePath)) return;
-            ByteBuffer nioBuffer = ByteBuffer.wrap(Files.readAllBytes(filePath));
-            buffer = new NetworkBuffer(nioBuffer);
-            length = nioBuffer.capacity();
+            snapshot = CodeSnapshot.read(Files.readAllBytes(filePath));
         } catch (IOException err) {
             FireFlow.LOGGER.error("Failed to read code file!", err);
             return;
         }
 
-        int version = buffer.read(NetworkBuffer.INT);
-
-        for (CodeMigration m : CodeMigration.values()) buffer = m.apply(version, length, buffer);
-
         structs.clear();
-        int stCount = buffer.read(NetworkBuffer.INT);
-        for (int stId = 0; stId < stCount; stId++) {
-            String name = buffer.read(NetworkBuffer.STRING);
-            byte len = buffer.read(NetworkBuffer.BYTE);
-            ArrayList<StructValue.Field> fields = new ArrayList<>(len);
-            for (byte i = 0; i < len; i++) fields.add(new StructValue.Field(buffer.read(NetworkBuffer.STRING), AllValues.readValue(buffer, List.of())));
-            StructValue type = new StructValue(name, fields);
-            structs.add(new StructDefinition(type));
-        }
-
+        structs.addAll(snapshot.structs());
         functions.clear();
-        int fnCount = buffer.read(NetworkBuffer.INT);
-        for (int fnId = 0; fnId < fnCount; fnId++) {
-            String name = buffer.read(NetworkBuffer.STRING);
-
-            int count = buffer.read(NetworkBuffer.INT);
-            List<NodeOutput> inputs = new ArrayList<>(count);
-            for (int each = 0; each < count; each++) {
-                String ioName = buffer.read(NetworkBuffer.STRING);
-                Value type = AllValues.readValue(buffer, structs);
-                inputs.add(new NodeOutput(ioName, type));
-            }
-
-            count = buffer.read(NetworkBuffer.INT);
-            List<NodeInput> outputs = new ArrayList<>(count);
-            for (int each = 0; each < count; each++) {
-                String ioName = buffer.read(NetworkBuffer.STRING);
-                Value type = AllValues.readValue(buffer, structs);
-                outputs.add(new NodeInput(ioName, type));
-            }
-
-            functions.add(new FunctionDefinition(name, inputs, outputs));
-        }
+        functions.addAll(snapshot.functions());
 
         List<Runnable> connectNodes = new ArrayList<>();
 
-        int nodeCount = buffer.read(NetworkBuffer.INT);
-        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
-            String id = buffer.read(NetworkBuffer.STRING);
-            byte type = 0;
-            if (version >= 1) type = buffer.read(NetworkBuffer.BYTE);
-
-            Supplier<Node> supplier = null;
-            if (type == 0) {
-                supplier = NodeList.nodes.get(id);
-            } else if (type >= 1 && type <= 3) {
-                for (FunctionDefinition fn : functions) {
-                    if (!fn.fnName.equals(id)) continue;
-                    if (type == 1) {
-                        supplier = fn::createCall;
-                    } else if (type == 2) {
-                        supplier = () -> fn.fnInputsNode;
-                    } else {
-                        supplier = () -> fn.fnOutputsNode;
-                    }
-                    break;
-                }
-            }
-
-            if (supplier == null) {
+        for (CodeSnapshot.Placed placed : snapshot.placed()) {
+            if (placed == null) {
                 widgets.add(null);
                 continue;
             }
-            Node node = supplier.get();
-            node = node.readData(buffer, structs);
-            double x = buffer.read(NetworkBuffer.DOUBLE);
-            double y = buffer.read(NetworkBuffer.DOUBLE);
 
-            NodeWidget widget = new NodeWidget(new Vec(x, y, 15.999), inst, node);
+            NodeWidget widget = new NodeWidget(placed.origin(), inst, placed.node());
             widget.update(false);
 
-            int inputCount = buffer.read(NetworkBuffer.INT);
-            for (int inputId = 0; inputId < inputCount; inputId++) {
-
-                int wireCount = buffer.read(NetworkBuffer.INT);
-                for (int wireId = 0; wireId < wireCount; wireId++) {
-                    int outNode = buffer.read(NetworkBuffer.INT);
-                    int output = buffer.read(NetworkBuffer.INT);
-
-                    int relayCount = buffer.read(NetworkBuffer.INT);
-                    List<Vec> relays = new ArrayList<>();
-                    for (int l = 0; l < relayCount; l++) {
-                        relays.add(new Vec(buffer.read(NetworkBuffer.DOUBLE), buffer.read(NetworkBuffer.DOUBLE), 15.999));
-                    }
-
+            for (int inputId = 0; inputId < placed.wires().size(); inputId++) {
+                for (CodeSnapshot.Wire wire : placed.wires().get(inputId)) {
                     int currentInputId = inputId;
                     connectNodes.add(() -> {
-                        if (widgets.get(outNode) instanceof NodeWidget out) {
+                        if (widgets.get(wire.node()) instanceof NodeWidget out) {
                             widget.inputs.get(currentInputId).addWire(new WireWidget(
-                                    inst, widget.inputs.get(currentInputId), out.outputs.get(output), relays
+                                    inst, widget.inputs.get(currentInputId), out.outputs.get(wire.output()), wire.relays()
                             ));
-                            if (widget.node.inputs.get(currentInputId).type == SignalValue.INSTANCE) {
-                                out.node.outputs.get(output).connectSignal(widget.node.inputs.get(currentInputId));
-                            } else {
-                                widget.node.inputs.get(currentInputId).connectValue(out.node.outputs.get(output));
-                            }
                         }
                     });
                 }
@@ -383,6 +303,10 @@ public class CodeEditor {
         while (widgets.contains(null)) widgets.remove(null);
     }
 
+    public CodeSnapshot snapshot() {
+        return CodeSnapshot.read(serialize());
+    }
+
     public List<Node> getNodes() {
         List<Node> list = new ArrayList<>();
         for (Widget w : widgets) {
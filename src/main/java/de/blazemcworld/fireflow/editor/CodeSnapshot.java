@@ -0,0 +1,152 @@
+package de.blazemcworld.fireflow.editor;
+
+import de.blazemcworld.fireflow.compiler.FunctionDefinition;
+import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.NodeInput;
+import de.blazemcworld.fireflow.node.NodeList;
+import de.blazemcworld.fireflow.node.NodeOutput;
+import de.blazemcworld.fireflow.value.AllValues;
+import de.blazemcworld.fireflow.value.SignalValue;
+import de.blazemcworld.fireflow.value.StructValue;
+import de.blazemcworld.fireflow.value.Value;
+import net.minestom.server.coordinate.Vec;
+import net.minestom.server.network.NetworkBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public record CodeSnapshot(List<StructDefinition> structs, List<FunctionDefinition> functions, List<Placed> placed) {
+
+    public static CodeSnapshot read(byte[] data) {
+        ByteBuffer nioBuffer = ByteBuffer.wrap(data);
+        NetworkBuffer buffer = new NetworkBuffer(nioBuffer);
+        int length = nioBuffer.capacity();
+
+        int version = buffer.read(NetworkBuffer.INT);
+
+        for (CodeMigration m : CodeMigration.values()) buffer = m.apply(version, length, buffer);
+
+        List<StructDefinition> structs = new ArrayList<>();
+        int stCount = buffer.read(NetworkBuffer.INT);
+        for (int stId = 0; stId < stCount; stId++) {
+            String name = buffer.read(NetworkBuffer.STRING);
+            byte len = buffer.read(NetworkBuffer.BYTE);
+            ArrayList<StructValue.Field> fields = new ArrayList<>(len);
+            for (byte i = 0; i < len; i++) fields.add(new StructValue.Field(buffer.read(NetworkBuffer.STRING), AllValues.readValue(buffer, List.of())));
+            StructValue type = new StructValue(name, fields);
+            structs.add(new StructDefinition(type));
+        }
+
+        List<FunctionDefinition> functions = new ArrayList<>();
+        int fnCount = buffer.read(NetworkBuffer.INT);
+        for (int fnId = 0; fnId < fnCount; fnId++) {
+            String name = buffer.read(NetworkBuffer.STRING);
+
+            int count = buffer.read(NetworkBuffer.INT);
+            List<NodeOutput> inputs = new ArrayList<>(count);
+            for (int each = 0; each < count; each++) {
+                String ioName = buffer.read(NetworkBuffer.STRING);
+                Value type = AllValues.readValue(buffer, structs);
+                inputs.add(new NodeOutput(ioName, type));
+            }
+
+            count = buffer.read(NetworkBuffer.INT);
+            List<NodeInput> outputs = new ArrayList<>(count);
+            for (int each = 0; each < count; each++) {
+                String ioName = buffer.read(NetworkBuffer.STRING);
+                Value type = AllValues.readValue(buffer, structs);
+                outputs.add(new NodeInput(ioName, type));
+            }
+
+            functions.add(new FunctionDefinition(name, inputs, outputs));
+        }
+
+        List<Placed> placed = new ArrayList<>();
+
+        int nodeCount = buffer.read(NetworkBuffer.INT);
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            String id = buffer.read(NetworkBuffer.STRING);
+            byte type = 0;
+            if (version >= 1) type = buffer.read(NetworkBuffer.BYTE);
+
+            Supplier<Node> supplier = null;
+            if (type == 0) {
+                supplier = NodeList.nodes.get(id);
+            } else if (type >= 1 && type <= 3) {
+                for (FunctionDefinition fn : functions) {
+                    if (!fn.fnName.equals(id)) continue;
+                    if (type == 1) {
+                        supplier = fn::createCall;
+                    } else if (type == 2) {
+                        supplier = () -> fn.fnInputsNode;
+                    } else {
+                        supplier = () -> fn.fnOutputsNode;
+                    }
+                    break;
+                }
+            }
+
+            if (supplier == null) {
+                placed.add(null);
+                continue;
+            }
+            Node node = supplier.get();
+            node = node.readData(buffer, structs);
+            double x = buffer.read(NetworkBuffer.DOUBLE);
+            double y = buffer.read(NetworkBuffer.DOUBLE);
+
+            List<List<Wire>> wires = new ArrayList<>();
+            int inputCount = buffer.read(NetworkBuffer.INT);
+            for (int inputId = 0; inputId < inputCount; inputId++) {
+                List<Wire> inputWires = new ArrayList<>();
+                int wireCount = buffer.read(NetworkBuffer.INT);
+                for (int wireId = 0; wireId < wireCount; wireId++) {
+                    int outNode = buffer.read(NetworkBuffer.INT);
+                    int output = buffer.read(NetworkBuffer.INT);
+
+                    int relayCount = buffer.read(NetworkBuffer.INT);
+                    List<Vec> relays = new ArrayList<>();
+                    for (int l = 0; l < relayCount; l++) {
+                        relays.add(new Vec(buffer.read(NetworkBuffer.DOUBLE), buffer.read(NetworkBuffer.DOUBLE), 15.999));
+                    }
+                    inputWires.add(new Wire(outNode, output, relays));
+                }
+                wires.add(inputWires);
+            }
+
+            placed.add(new Placed(node, new Vec(x, y, 15.999), wires));
+        }
+
+        for (Placed each : placed) {
+            if (each == null) continue;
+            for (int inputId = 0; inputId < each.wires.size(); inputId++) {
+                for (Wire wire : each.wires.get(inputId)) {
+                    if (wire.node < 0 || wire.node >= placed.size() || placed.get(wire.node) == null) continue;
+                    NodeOutput out = placed.get(wire.node).node.outputs.get(wire.output);
+                    if (each.node.inputs.get(inputId).type == SignalValue.INSTANCE) {
+                        out.connectSignal(each.node.inputs.get(inputId));
+                    } else {
+                        each.node.inputs.get(inputId).connectValue(out);
+                    }
+                }
+            }
+        }
+
+        return new CodeSnapshot(structs, functions, placed);
+    }
+
+    public List<Node> nodes() {
+        List<Node> list = new ArrayList<>();
+        for (Placed each : placed) {
+            if (each != null) list.add(each.node);
+        }
+        return list;
+    }
+
+    public record Placed(Node node, Vec origin, List<List<Wire>> wires) {}
+
+    public record Wire(int node, int output, List<Vec> relays) {}
+}
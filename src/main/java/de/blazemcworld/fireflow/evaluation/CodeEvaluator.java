@@ -1,43 +1,89 @@
 package de.blazemcworld.fireflow.evaluation;
 
-import de.blazemcworld.fireflow.compiler.ByteClassLoader;
-import de.blazemcworld.fireflow.compiler.CompiledNode;
-import de.blazemcworld.fireflow.compiler.NodeCompiler;
-import de.blazemcworld.fireflow.editor.CodeEditor;
+import de.blazemcworld.fireflow.FireFlow;
+import de.blazemcworld.fireflow.compiler.BytecodeCache;
+import de.blazemcworld.fireflow.compiler.CompiledClasses;
+import de.blazemcworld.fireflow.compiler.CompiledStruct;
+import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.compiler.SubgraphHash;
+import de.blazemcworld.fireflow.editor.CodeSnapshot;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.space.Space;
 import de.blazemcworld.fireflow.util.Config;
 import de.blazemcworld.fireflow.util.Messages;
+import net.kyori.adventure.text.Component;
+import net.minestom.server.MinecraftServer;
 import net.minestom.server.entity.Player;
 import net.minestom.server.event.EventFilter;
 import net.minestom.server.event.EventNode;
 import net.minestom.server.event.instance.InstanceTickEvent;
 import net.minestom.server.event.trait.InstanceEvent;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class CodeEvaluator {
 
-    public CodeEditor editor;
-    public Map<String, Object> variables = new HashMap<>();
+    public VariableStore variables = new VariableStore();
+    public final VariableStore.Names localNames = new VariableStore.Names();
+    public final VariableStore.Names persistentNames = new VariableStore.Names();
     public EventNode<InstanceEvent> events;
-    public NodeCompiler compiler;
     public final Space space;
     private final List<Runnable> prepare = new LinkedList<>();
     private final List<Runnable> compile = new LinkedList<>();
-    private final Class<CompiledNode> compiledClass;
+    private final List<CodePartition> partitions = new ArrayList<>();
+    private final SubgraphHash hasher;
+    private final BytecodeCache cache;
+    private final Map<String, Class<?>> structClasses;
+    private final Map<Class<?>, EventDispatcher<?>> dispatchers = new HashMap<>();
+    private static final int MAX_DEFERRED = 4096;
+    private static final int MAX_CPU_ABORTS = 5;
+    private static final int CPU_ABORT_DECAY = 20;
+
     public long cpuLeft = Config.store.limits().cpuPerTick();
-    private boolean stopped = false;
-    public final Set<Runnable> stopEvents = new HashSet<>();
+    public volatile long cpuShare = Config.store.limits().cpuPerTick();
+    private final ArrayDeque<Runnable> deferred = new ArrayDeque<>();
+    private boolean draining = false;
+    private int cpuAborts = 0;
+    private int ticksSinceAbort = 0;
+    private volatile boolean stopped = false;
+    public final WaitQueue waits = new WaitQueue();
+    public final MemoryMeter memory = new MemoryMeter(this);
+    private final ExecutorService executor;
+    private volatile Thread worker;
+    private CompletableFuture<?> compiling = CompletableFuture.completedFuture(null);
+    private final Queue<Runnable> effects = new ConcurrentLinkedQueue<>();
+    private final CompletableFuture<Void> halted = new CompletableFuture<>();
 
-    public CodeEvaluator(Space space, CodeEditor editor) {
-        this.editor = editor;
+    public CodeEvaluator(Space space, CodeSnapshot code) {
         this.space = space;
         events = EventNode.type("space-" + space.info.id, EventFilter.INSTANCE);
-        space.play.eventNode().addChild(events);
-        List<Node> nodes = editor.getNodes();
-        compiler = new NodeCompiler("Space" + space.info.id);
+        if (Config.store.limits().offTick()) {
+            ThreadFactory threads = Thread.ofVirtual().name("space-" + space.info.id).factory();
+            executor = Executors.newSingleThreadExecutor(task -> worker = threads.newThread(task));
+        } else {
+            executor = null;
+        }
+        List<Node> nodes = code.nodes();
+        hasher = new SubgraphHash(nodes, code.structs());
+
+        Path cachePath = Path.of("spaces").resolve(String.valueOf(space.info.id)).resolve("code.cache");
+        cache = BytecodeCache.read(cachePath);
+        if (cache != null) {
+            for (String name : cache.locals()) localNames.slot(name);
+            for (String name : cache.space()) variables.names().slot(name);
+            for (String name : cache.persistent()) persistentNames.slot(name);
+        }
+
         for (Node node : nodes) {
             node.register(this);
         }
@@ -46,17 +92,145 @@ public class CodeEvaluator {
         prepare.clear();
         compile.clear();
 
-        byte[] bytes = compiler.compile();
-        compiledClass = (Class<CompiledNode>) new ByteClassLoader(CodeEvaluator.class.getClassLoader()).define(compiler.className, bytes);
-        /*
-        try (var stream = new java.io.FileOutputStream("generated.class")) {
-            stream.write(bytes);
-        } catch (Exception e) {
-            e.printStackTrace();
+        int compiled = 0;
+        Map<String, BytecodeCache.Partition> entries = new HashMap<>();
+        try {
+            Map<String, byte[]> structs = new HashMap<>();
+            for (StructDefinition st : code.structs()) structs.put(st.type.className(), st.compileClass());
+            MethodHandles.Lookup lookup = CompiledClasses.lookup(structs);
+            structClasses = CompiledClasses.structClasses(lookup);
+            for (CodePartition partition : partitions) {
+                partition.load(lookup);
+                if (!partition.isCached()) compiled++;
+                entries.put(partition.hash, partition.toCache());
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+        if (compiled > 0 || cache == null || !cache.partitions().keySet().equals(entries.keySet())) {
+            new BytecodeCache(localNames.list(), variables.names().list(), persistentNames.list(), entries).write(cachePath);
         }
-         */
+        FireFlow.LOGGER.info("Compiled {} of {} partitions for space {}", compiled, partitions.size(), space.info.id);
+
+        events.addListener(InstanceTickEvent.class, event -> {
+            applyEffects();
+            execute(this::tick);
+        });
+    }
 
-        events.addListener(InstanceTickEvent.class, event -> cpuLeft = Config.store.limits().cpuPerTick());
+    private void tick() {
+        if (stopped) return;
+        if (cpuAborts > 0 && ++ticksSinceAbort >= CPU_ABORT_DECAY) cpuAborts = 0;
+        memory.tick();
+        long share = cpuShare;
+        cpuLeft = Math.min(cpuLeft + share, share * (1 + Math.max(Config.store.limits().cpuBurst(), 0)));
+        draining = true;
+        while (!stopped && cpuLeft >= 0 && !deferred.isEmpty()) deferred.poll().run();
+        draining = false;
+        waits.tick(this);
+    }
+
+    public void cpuAbort() {
+        FireFlow.LOGGER.warn("Aborted flow over the cpu budget of Space #{}!", space.info.id);
+        ticksSinceAbort = 0;
+        if (++cpuAborts >= MAX_CPU_ABORTS) {
+            FireFlow.LOGGER.warn("Too many cpu aborts for Space #{}!", space.info.id);
+            stop(false);
+            return;
+        }
+        effect(() -> broadcast(Messages.error("A flow used too much cpu time and was aborted!")));
+    }
+
+    public void defer(Runnable task) {
+        if (draining) {
+            deferred.addFirst(task);
+            return;
+        }
+        if (deferred.size() >= MAX_DEFERRED) {
+            FireFlow.LOGGER.warn("Too many deferred events for Space #{}!", space.info.id);
+            stop(false);
+            return;
+        }
+        deferred.addLast(task);
+    }
+
+    public void execute(Runnable task) {
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException err) {
+            halted.thenRun(task).exceptionally(failure -> {
+                FireFlow.LOGGER.error("Failed to run task of stopped space {}!", space.info.id, failure);
+                return null;
+            });
+        }
+    }
+
+    public void later(Runnable task) {
+        if (executor == null) {
+            MinecraftServer.getSchedulerManager().scheduleNextTick(task);
+        } else {
+            execute(task);
+        }
+    }
+
+    public synchronized <T> CompletableFuture<T> background(Supplier<T> task) {
+        CompletableFuture<T> next = compiling.exceptionally(err -> null).thenApplyAsync(previous -> task.get(), Space.COMPILER);
+        compiling = next;
+        return next;
+    }
+
+    public boolean defersEffects() {
+        return executor != null;
+    }
+
+    public void effect(Runnable effect) {
+        if (executor == null) {
+            effect.run();
+            return;
+        }
+        effects.add(effect);
+    }
+
+    private void applyEffects() {
+        Runnable effect;
+        while ((effect = effects.poll()) != null) {
+            try {
+                effect.run();
+            } catch (Exception err) {
+                FireFlow.LOGGER.error("Failed to apply effect of space {}!", space.info.id, err);
+            }
+        }
+    }
+
+    public void start() {
+        space.variables = space.variables.withLeading(persistentNames.list());
+        if (!structClasses.isEmpty()) {
+            for (Map.Entry<String, Object> entry : space.variables.entrySet()) {
+                entry.setValue(CompiledStruct.revive(entry.getValue(), structClasses));
+            }
+        }
+        space.play.eventNode().addChild(events);
+        CpuScheduler.register(this);
+    }
+
+    public CodePartition partition(Node root) {
+        String hash = hasher.of(root);
+        CodePartition partition = new CodePartition(this, hash, cache == null ? null : cache.partitions().get(hash));
+        partitions.add(partition);
+        return partition;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <E extends InstanceEvent> EventDispatcher<E> dispatcher(Class<E> type, Function<E, Object[]> payload) {
+        return (EventDispatcher<E>) dispatchers.computeIfAbsent(type, (_type) -> {
+            EventDispatcher<E> dispatcher = new EventDispatcher<>(this, payload);
+            events.addListener(type, dispatcher::dispatch);
+            return dispatcher;
+        });
     }
 
     public void prepare(Runnable r) {
@@ -67,30 +241,48 @@ public class CodeEvaluator {
         compile.add(r);
     }
 
-    public void stop(boolean reload) {
-        if (stopped) return;
+    public CompletableFuture<Void> stop(boolean reload) {
+        if (stopped) return halted;
         stopped = true;
-        if (!reload) {
-            for (Player player : space.play.getPlayers()) {
-                player.sendMessage(Messages.error("Space code evaluation has been halted!"));
-            }
-            for (Player player : space.code.getPlayers()) {
-                player.sendMessage(Messages.error("Space code evaluation has been halted!"));
-            }
+        effects.clear();
+        if (executor == null) {
+            detach(reload);
+            clear();
+            return halted;
+        }
+        if (Thread.currentThread() == worker) {
+            effects.add(() -> detach(reload));
+        } else {
+            detach(reload);
         }
-        for (Runnable stop : stopEvents) stop.run();
+        executor.execute(this::clear);
+        executor.shutdown();
+        return halted;
+    }
+
+    private void detach(boolean reload) {
+        if (!reload) broadcast(Messages.error("Space code evaluation has been halted!"));
         space.play.eventNode().removeChild(events);
+        CpuScheduler.unregister(this);
     }
 
-    public CompiledNode newContext() {
-        try {
-            CompiledNode ctx = compiledClass.getDeclaredConstructor().newInstance();
-            ctx.evaluator = this;
-            ctx.space = space;
-            return ctx;
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException |
-                 NoSuchMethodException e) {
-            throw new RuntimeException(e);
+    private void broadcast(Component message) {
+        for (Player player : space.play.getPlayers()) {
+            player.sendMessage(message);
         }
+        for (Player player : space.code.getPlayers()) {
+            player.sendMessage(message);
+        }
+    }
+
+    private void clear() {
+        waits.clear();
+        deferred.clear();
+        for (CodePartition partition : partitions) partition.clear();
+        halted.complete(null);
+    }
+
+    public boolean isStopped() {
+        return stopped;
     }
 }
@@ -0,0 +1,134 @@
+package de.blazemcworld.fireflow.evaluation;
+
+import de.blazemcworld.fireflow.FireFlow;
+import de.blazemcworld.fireflow.compiler.BytecodeCache;
+import de.blazemcworld.fireflow.compiler.CompiledClasses;
+import de.blazemcworld.fireflow.compiler.CompiledNode;
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
+import de.blazemcworld.fireflow.util.Config;
+import net.minestom.server.MinecraftServer;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class CodePartition {
+
+    private static final int HOT_ROOT_CALLS = 64;
+    private static final int CONTEXT_POOL = Config.store.limits().contextPool() > 0 ? Config.store.limits().contextPool() : 16;
+
+    public final CodeEvaluator evaluator;
+    public final String hash;
+    public NodeCompiler compiler;
+    private BytecodeCache.Partition cached;
+    private byte[] bytes;
+    private CompiledNode factory;
+    private final ArrayDeque<CompiledNode> pool = new ArrayDeque<>();
+    private int[] rootCalls = new int[0];
+    private final Set<Integer> hotRoots = new TreeSet<>();
+    private boolean promoting = false;
+
+    public CodePartition(CodeEvaluator evaluator, String hash, BytecodeCache.Partition cached) {
+        this.evaluator = evaluator;
+        this.hash = hash;
+        this.cached = cached;
+        compiler = new NodeCompiler("Space" + evaluator.space.info.id + "$" + hash.substring(0, 12), evaluator);
+        if (cached != null) compiler.replay(cached.trace());
+    }
+
+    public boolean isCached() {
+        return cached != null;
+    }
+
+    public BytecodeCache.Partition toCache() {
+        return new BytecodeCache.Partition(cached != null ? cached.trace() : compiler.trace(), bytes);
+    }
+
+    public void load(MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+        Class<?> compiledClass = null;
+        if (cached != null) {
+            try {
+                compiledClass = CompiledClasses.define(evaluator.space.info.id, cached.bytes(), lookup);
+                bytes = cached.bytes();
+            } catch (LinkageError err) {
+                FireFlow.LOGGER.warn("Discarding cached bytecode of space {}!", evaluator.space.info.id, err);
+                cached = null;
+            }
+        }
+        if (compiledClass == null) {
+            bytes = compiler.compile();
+            compiledClass = CompiledClasses.define(evaluator.space.info.id, bytes, lookup);
+        }
+        factory = (CompiledNode) compiledClass.getDeclaredConstructor().newInstance();
+        rootCalls = new int[compiler.rootCount()];
+        /*
+        try (var stream = new java.io.FileOutputStream("generated.class")) {
+            stream.write(bytes);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+         */
+    }
+
+    public void countRoot(int entry) {
+        if (entry >= rootCalls.length || ++rootCalls[entry] != HOT_ROOT_CALLS) return;
+        hotRoots.add(entry);
+        if (promoting) return;
+        promoting = true;
+        evaluator.later(this::promote);
+    }
+
+    private void promote() {
+        if (evaluator.isStopped()) {
+            promoting = false;
+            return;
+        }
+        Set<Integer> hot = new TreeSet<>(hotRoots);
+        NodeCompiler next = compiler.promote(hot);
+        Class<?> sibling = factory.getClass();
+        evaluator.background(() -> {
+            try {
+                Class<?> compiledClass = CompiledClasses.defineSibling(evaluator.space.info.id, next.compile(), sibling);
+                return (CompiledNode) compiledClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }).whenComplete((promoted, err) -> MinecraftServer.getSchedulerManager().scheduleNextTick(() -> evaluator.execute(() -> {
+            promoting = false;
+            if (evaluator.isStopped()) return;
+            if (err != null) {
+                FireFlow.LOGGER.error("Failed to promote hot roots of space {}!", evaluator.space.info.id, err);
+                return;
+            }
+            factory = promoted;
+            compiler = next;
+            pool.clear();
+            FireFlow.LOGGER.info("Promoted {} hot roots of space {}, peephole pass removed {} instructions", hot.size(), evaluator.space.info.id, next.peepholeRemoved);
+            if (hotRoots.size() > hot.size()) {
+                promoting = true;
+                evaluator.later(this::promote);
+            }
+        })));
+    }
+
+    public CompiledNode newContext() {
+        CompiledNode ctx = pool.poll();
+        if (ctx != null) return ctx;
+        ctx = factory.create();
+        ctx.locals = new VariableStore(evaluator.localNames);
+        ctx.evaluator = evaluator;
+        ctx.partition = this;
+        ctx.space = evaluator.space;
+        return ctx;
+    }
+
+    public void release(CompiledNode ctx) {
+        if (pool.size() >= CONTEXT_POOL || ctx.getClass() != factory.getClass()) return;
+        if (ctx.reset()) pool.push(ctx);
+    }
+
+    public void clear() {
+        pool.clear();
+    }
+}
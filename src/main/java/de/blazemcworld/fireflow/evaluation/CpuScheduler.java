@@ -0,0 +1,41 @@
+package de.blazemcworld.fireflow.evaluation;
+
+import de.blazemcworld.fireflow.util.Config;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.timer.TaskSchedule;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CpuScheduler {
+
+    private static final Set<CodeEvaluator> running = ConcurrentHashMap.newKeySet();
+
+    public static void init() {
+        MinecraftServer.getSchedulerManager().scheduleTask(CpuScheduler::tick, TaskSchedule.immediate(), TaskSchedule.nextTick());
+    }
+
+    public static void register(CodeEvaluator evaluator) {
+        running.add(evaluator);
+    }
+
+    public static void unregister(CodeEvaluator evaluator) {
+        running.remove(evaluator);
+    }
+
+    private static void tick() {
+        if (running.isEmpty()) return;
+        CodeEvaluator[] all = running.toArray(new CodeEvaluator[0]);
+        int[] weights = new int[all.length];
+        long total = 0;
+        for (int i = 0; i < all.length; i++) {
+            weights[i] = 1 + all[i].space.play.getPlayers().size();
+            total += weights[i];
+        }
+        long cap = Config.store.limits().cpuPerTick();
+        long budget = Config.store.limits().cpuGlobalPerTick();
+        for (int i = 0; i < all.length; i++) {
+            all[i].cpuShare = budget <= 0 ? cap : Math.min(cap, budget * weights[i] / total);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package de.blazemcworld.fireflow.evaluation;
+
+import de.blazemcworld.fireflow.compiler.CompiledNode;
+import net.minestom.server.event.trait.InstanceEvent;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+public class EventDispatcher<E extends InstanceEvent> {
+
+    private final CodeEvaluator evaluator;
+    private final Function<E, Object[]> payload;
+    private CodePartition[] partitions = new CodePartition[0];
+    private int[] entries = new int[0];
+    private int[][] slots = new int[0][];
+
+    public EventDispatcher(CodeEvaluator evaluator, Function<E, Object[]> payload) {
+        this.evaluator = evaluator;
+        this.payload = payload;
+    }
+
+    public void add(CodePartition partition, int entry, int... slots) {
+        int index = entries.length;
+        partitions = Arrays.copyOf(partitions, index + 1);
+        entries = Arrays.copyOf(entries, index + 1);
+        this.slots = Arrays.copyOf(this.slots, index + 1);
+        partitions[index] = partition;
+        entries[index] = entry;
+        this.slots[index] = slots;
+    }
+
+    public void dispatch(E event) {
+        Object[] values = payload.apply(event);
+        if (values == null) return;
+        evaluator.execute(() -> run(values, 0));
+    }
+
+    private void run(Object[] values, int from) {
+        for (int i = from; i < entries.length; i++) {
+            if (evaluator.isStopped()) return;
+            if (evaluator.cpuLeft < 0) {
+                int next = i;
+                evaluator.defer(() -> run(values, next));
+                return;
+            }
+            CompiledNode context = partitions[i].newContext();
+            int[] targets = slots[i];
+            for (int j = 0; j < targets.length; j++) context.setInternalVar(targets[j], values[j]);
+            context.emit(entries[i]);
+        }
+    }
+}
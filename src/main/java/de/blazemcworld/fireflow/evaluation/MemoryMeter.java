@@ -0,0 +1,116 @@
+package de.blazemcworld.fireflow.evaluation;
+
+import de.blazemcworld.fireflow.compiler.CompiledNode;
+import de.blazemcworld.fireflow.compiler.CompiledStruct;
+import de.blazemcworld.fireflow.compiler.MemoryLimitException;
+import de.blazemcworld.fireflow.util.Config;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.util.*;
+
+public class MemoryMeter {
+
+    public static final long REFERENCE = 8;
+    public static final long LIST = 40;
+    public static final long DICTIONARY = 48;
+    public static final long ENTRY = 32;
+
+    private static final ThreadLocal<CompiledNode> running = new ThreadLocal<>();
+
+    private final CodeEvaluator evaluator;
+    private final long limit;
+    public long used = 0;
+    private long sinceRecount = 0;
+    private boolean recounted = false;
+
+    public MemoryMeter(CodeEvaluator evaluator) {
+        this.evaluator = evaluator;
+        long configured = Config.store.limits().memoryPerSpace();
+        limit = configured > 0 ? configured : Long.MAX_VALUE;
+    }
+
+    public void tick() {
+        recounted = false;
+    }
+
+    public void allocate(long bytes, CompiledNode running) {
+        used += bytes;
+        sinceRecount += bytes;
+        if (used <= limit || recounted && sinceRecount < limit / 8) return;
+        used = retained(running);
+        recounted = true;
+        sinceRecount = 0;
+        if (used > limit) throw new MemoryLimitException();
+    }
+
+    public void free(long bytes) {
+        used = Math.max(0, used - bytes);
+    }
+
+    public long retained(CompiledNode running) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Object> todo = new ArrayDeque<>();
+        todo.addAll(evaluator.space.variables.values());
+        todo.addAll(evaluator.variables.values());
+        if (running != null && seen.add(running)) todo.addAll(running.locals.values());
+        evaluator.waits.waiting((ctx, captured) -> {
+            if (seen.add(ctx)) todo.addAll(ctx.locals.values());
+            todo.push(captured);
+        });
+
+        long total = 0;
+        while (!todo.isEmpty()) {
+            Object value = todo.pop();
+            if (!(value instanceof String) && !seen.add(value)) continue;
+            total += sizeOf(value);
+            if (value instanceof List<?> list) {
+                for (Object each : list) if (each != null) todo.push(each);
+            } else if (value instanceof Map<?, ?> map) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getKey() != null) todo.push(entry.getKey());
+                    if (entry.getValue() != null) todo.push(entry.getValue());
+                }
+            } else if (value instanceof CompiledStruct struct) {
+                for (Object each : struct.values()) if (each != null) todo.push(each);
+            } else if (value instanceof Object[] array) {
+                for (Object each : array) if (each != null) todo.push(each);
+            } else if (value instanceof Component component) {
+                todo.addAll(component.children());
+            }
+        }
+        return total;
+    }
+
+    public static CompiledNode enter(CompiledNode ctx) {
+        CompiledNode previous = running.get();
+        running.set(ctx);
+        return previous;
+    }
+
+    public static void exit(CompiledNode previous) {
+        running.set(previous);
+    }
+
+    public static String concat(String left, String right) {
+        CompiledNode ctx = running.get();
+        if (ctx != null) ctx.allocate(text((long) left.length() + right.length()));
+        return left.concat(right);
+    }
+
+    public static long sizeOf(Object value) {
+        if (value == null) return 0;
+        if (value instanceof String s) return text(s.length());
+        if (value instanceof List<?> list) return LIST + REFERENCE * list.size();
+        if (value instanceof Map<?, ?> map) return DICTIONARY + ENTRY * map.size();
+        if (value instanceof CompiledStruct struct) return 16 + REFERENCE * struct.values().length;
+        if (value instanceof Object[] array) return 16 + REFERENCE * array.length;
+        if (value instanceof TextComponent component) return 64 + text(component.content().length());
+        if (value instanceof Component) return 64;
+        return 24;
+    }
+
+    public static long text(long length) {
+        return 40 + 2 * length;
+    }
+}
@@ -0,0 +1,176 @@
+package de.blazemcworld.fireflow.evaluation;
+
+import java.util.*;
+
+public class VariableStore extends AbstractMap<String, Object> {
+
+    private final Names names;
+    private Object[] values;
+    private int size = 0;
+
+    public VariableStore() {
+        this(new Names());
+    }
+
+    public VariableStore(Names names) {
+        this.names = names;
+        values = new Object[names.size()];
+    }
+
+    public Names names() {
+        return names;
+    }
+
+    public VariableStore withLeading(List<String> order) {
+        boolean matches = true;
+        for (int i = 0; i < order.size(); i++) {
+            if (names.find(order.get(i)) != i) {
+                matches = false;
+                break;
+            }
+        }
+        if (matches) return this;
+
+        VariableStore out = new VariableStore();
+        for (String name : order) out.names.slot(name);
+        for (Entry<String, Object> entry : entrySet()) out.put(entry.getKey(), entry.getValue());
+        return out;
+    }
+
+    @SuppressWarnings("unused") // Used by asm
+    public Object get(int slot) {
+        if (slot >= values.length) return null;
+        return values[slot];
+    }
+
+    @SuppressWarnings("unused") // Used by asm
+    public void set(int slot, Object value) {
+        if (slot >= values.length) {
+            if (value == null) return;
+            values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+        }
+        if (values[slot] == null && value != null) size++;
+        if (values[slot] != null && value == null) size--;
+        values[slot] = value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) return null;
+        int slot = names.find(name);
+        if (slot == -1) return null;
+        return get(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = names.slot(key);
+        Object previous = get(slot);
+        set(slot, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String name)) return null;
+        int slot = names.find(name);
+        if (slot == -1) return null;
+        Object previous = get(slot);
+        set(slot, null);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+                    private int last = -1;
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        last = next;
+                        next = advance(next + 1);
+                        int slot = last;
+                        return new SimpleEntry<>(names.name(slot), values[slot]) {
+                            @Override
+                            public Object setValue(Object value) {
+                                set(slot, value);
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == -1) throw new IllegalStateException();
+                        set(last, null);
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public static class Names {
+        private final HashMap<String, Integer> slots = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        public int slot(String name) {
+            return slots.computeIfAbsent(name, _name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+        }
+
+        public int find(String name) {
+            return slots.getOrDefault(name, -1);
+        }
+
+        public String name(int slot) {
+            return names.get(slot);
+        }
+
+        public int size() {
+            return names.size();
+        }
+
+        public List<String> list() {
+            return Collections.unmodifiableList(names);
+        }
+    }
+}
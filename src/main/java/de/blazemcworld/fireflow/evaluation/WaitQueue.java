@@ -0,0 +1,114 @@
+package de.blazemcworld.fireflow.evaluation;
+
+import de.blazemcworld.fireflow.compiler.CompiledNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.function.BiConsumer;
+
+public class WaitQueue {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private ArrayList<Waiting>[] wheel = newWheel();
+    private final ArrayDeque<Waiting> due = new ArrayDeque<>();
+    private long tick = 0;
+
+    public void add(int ticks, CompiledNode ctx, int point, Object[] frame, Object[] slots) {
+        schedule(new Waiting(tick + Math.max(ticks, 1), 0, 1, ctx, point, frame, slots));
+    }
+
+    public void repeat(int interval, int times, CompiledNode ctx, int point, Object[] frame, Object[] slots) {
+        interval = Math.max(interval, 1);
+        schedule(new Waiting(tick + interval, interval, times, ctx, point, frame, slots));
+    }
+
+    public void tick(CodeEvaluator evaluator) {
+        tick++;
+        int top = 0;
+        while (top < LEVELS - 1 && (tick & ((1L << (BITS * (top + 1))) - 1)) == 0) top++;
+        for (int level = top; level > 0; level--) {
+            ArrayList<Waiting> bucket = wheel[level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK)];
+            if (bucket == null || bucket.isEmpty()) continue;
+            Waiting[] moved = bucket.toArray(new Waiting[0]);
+            bucket.clear();
+            for (Waiting w : moved) schedule(w);
+        }
+        ArrayList<Waiting> bucket = wheel[(int) (tick & MASK)];
+        if (bucket != null && !bucket.isEmpty()) {
+            due.addAll(bucket);
+            bucket.clear();
+        }
+        while (!due.isEmpty() && evaluator.cpuLeft >= 0) {
+            Waiting next = due.poll();
+            if (next.remaining == 1) {
+                next.ctx.wake(next.point, next.frame, next.slots);
+                continue;
+            }
+            next.remaining--;
+            next.due = tick + next.interval;
+            schedule(next);
+            next.ctx.fire(next.point, next.frame, next.slots);
+        }
+    }
+
+    public void waiting(BiConsumer<CompiledNode, Object[]> consumer) {
+        for (ArrayList<Waiting> bucket : wheel) {
+            if (bucket == null) continue;
+            for (Waiting w : bucket) visit(w, consumer);
+        }
+        for (Waiting w : due) visit(w, consumer);
+    }
+
+    private static void visit(Waiting w, BiConsumer<CompiledNode, Object[]> consumer) {
+        consumer.accept(w.ctx, w.slots);
+        if (w.frame != null) consumer.accept(w.ctx, w.frame);
+    }
+
+    public void clear() {
+        wheel = newWheel();
+        due.clear();
+    }
+
+    private void schedule(Waiting w) {
+        long delta = w.due - tick;
+        if (delta <= 0) {
+            due.add(w);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        int index = level * SLOTS + (int) ((w.due >>> (BITS * level)) & MASK);
+        ArrayList<Waiting> bucket = wheel[index];
+        if (bucket == null) wheel[index] = bucket = new ArrayList<>();
+        bucket.add(w);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayList<Waiting>[] newWheel() {
+        return new ArrayList[LEVELS * SLOTS];
+    }
+
+    private static class Waiting {
+        long due;
+        final int interval;
+        int remaining;
+        final CompiledNode ctx;
+        final int point;
+        final Object[] frame;
+        final Object[] slots;
+
+        Waiting(long due, int interval, int remaining, CompiledNode ctx, int point, Object[] frame, Object[] slots) {
+            this.due = due;
+            this.interval = interval;
+            this.remaining = remaining;
+            this.ctx = ctx;
+            this.point = point;
+            this.frame = frame;
+            this.slots = slots;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import de.blazemcworld.fireflow.FireFlow;
+import de.blazemcworld.fireflow.compiler.CompiledClasses;
 import de.blazemcworld.fireflow.space.SpaceInfo;
 import de.blazemcworld.fireflow.space.SpaceManager;
 import de.blazemcworld.fireflow.space.SpacesIndex;
@@ -17,6 +18,7 @@ import net.minestom.server.MinecraftServer;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public class ApiServer {
@@ -70,6 +72,13 @@ public class ApiServer {
                         }
                         response = res;
                     }
+                    case "compiled_classes" -> {
+                        JsonObject res = new JsonObject();
+                        for (Map.Entry<Integer, Integer> entry : CompiledClasses.liveClasses().entrySet()) {
+                            res.addProperty(String.valueOf(entry.getKey()), entry.getValue());
+                        }
+                        response = res;
+                    }
                 }
 
                 if (response != null) {
@@ -17,11 +17,22 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class Node {
 
@@ -47,11 +58,13 @@ public abstract class Node {
 
     public void register(CodeEvaluator evaluator) {}
 
-    protected static long idCounter = 0;
+    private static final Map<Class<?>, ClassNode> templates = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, byte[]> digests = new ConcurrentHashMap<>();
+    protected static final AtomicLong idCounter = new AtomicLong();
     private final Map<String, String> myIds = new HashMap<>();
 
     public String allocateId(String generalId) {
-        return myIds.computeIfAbsent(generalId, _id -> Long.toHexString(idCounter++));
+        return myIds.computeIfAbsent(generalId, _id -> Long.toHexString(idCounter.getAndIncrement()));
     }
 
     public String getBaseName() {
@@ -107,18 +120,30 @@ public abstract class Node {
     }
 
     protected void loadJava(Class<?> clazz) {
+        loadJava(clazz, null);
+    }
+
+    protected void loadJava(Class<?> clazz, Value specialization) {
         try {
-            ClassReader reader = new ClassReader(clazz.getName());
-            ClassNode classNode = new ClassNode();
-            reader.accept(classNode, 0);
+            ClassNode classNode = templates.computeIfAbsent(clazz, Node::parseTemplate);
+            Method[] methods = clazz.getDeclaredMethods();
+
+            Set<String> specialized = new HashSet<>();
+            for (Method m : methods) {
+                if (!specializes(m, specialization)) continue;
+                if (m.isAnnotationPresent(FlowSignalInput.class)) specialized.add(m.getAnnotation(FlowSignalInput.class).value());
+                if (m.isAnnotationPresent(FlowValueOutput.class)) specialized.add(m.getAnnotation(FlowValueOutput.class).value());
+            }
 
-            for (Method m : clazz.getDeclaredMethods()) {
+            for (Method m : methods) {
+                if (m.isAnnotationPresent(FlowSpecialization.class) ? !specializes(m, specialization) : specialized.contains(templateName(m))) continue;
                 if (m.isAnnotationPresent(FlowSignalInput.class)) {
                     String name = m.getAnnotation(FlowSignalInput.class).value();
                     for (NodeInput input : inputs) {
                         if (!input.getName().equals(name) || input.type != SignalValue.INSTANCE) continue;
 
-                        input.setInstruction(convertJava(classNode, clazz, m));
+                        input.readOnly = m.isAnnotationPresent(FlowReadOnly.class);
+                        input.setInstruction(convertJava(classNode, methods, m));
                     }
                     continue;
                 }
@@ -127,7 +152,9 @@ public abstract class Node {
                     for (NodeOutput output : outputs) {
                         if (!output.getName().equals(name) || output.type == SignalValue.INSTANCE) continue;
 
-                        Instruction insn = convertJava(classNode, clazz, m);
+                        output.pure = m.isAnnotationPresent(FlowPure.class);
+                        output.readOnly = m.isAnnotationPresent(FlowReadOnly.class);
+                        Instruction insn = convertJava(classNode, methods, m);
                         if (m.getReturnType() == Object.class) {
                             insn = output.type.cast(insn);
                         }
@@ -141,19 +168,67 @@ public abstract class Node {
         }
     }
 
-    private Instruction convertJava(ClassNode classNode, Class<?> clazz, Method m) {
+    private static ClassNode parseTemplate(Class<?> clazz) {
+        ClassReader reader = new ClassReader(classBytes(clazz));
+        ClassNode classNode = new ClassNode();
+        reader.accept(classNode, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        return classNode;
+    }
+
+    public static byte[] digest(Class<?> clazz) {
+        return digests.computeIfAbsent(clazz, (_clazz) -> {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                Class<?>[] members = clazz.getNestMembers();
+                Arrays.sort(members, Comparator.comparing(Class::getName));
+                for (Class<?> member : members) digest.update(classBytes(member));
+                return digest.digest();
+            } catch (NoSuchAlgorithmException err) {
+                throw new IllegalStateException(err);
+            }
+        });
+    }
+
+    private static byte[] classBytes(Class<?> clazz) {
+        try (InputStream in = ClassLoader.getSystemResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            if (in == null) throw new IOException("Missing class file for " + clazz.getName());
+            return in.readAllBytes();
+        } catch (IOException err) {
+            throw new UncheckedIOException(err);
+        }
+    }
+
+    private static boolean specializes(Method m, Value specialization) {
+        return specialization != null && m.isAnnotationPresent(FlowSpecialization.class)
+                && m.getAnnotation(FlowSpecialization.class).value().equals(specialization.getBaseName());
+    }
+
+    private static String templateName(Method m) {
+        if (m.isAnnotationPresent(FlowSignalInput.class)) return m.getAnnotation(FlowSignalInput.class).value();
+        if (m.isAnnotationPresent(FlowValueOutput.class)) return m.getAnnotation(FlowValueOutput.class).value();
+        return null;
+    }
+
+    private Instruction convertJava(ClassNode classNode, Method[] methods, Method m) {
         String desc = Type.getType(m).getDescriptor();
         for (MethodNode mNode : classNode.methods) {
             if (!mNode.name.equals(m.getName()) || !mNode.desc.equals(desc)) continue;
 
             List<Instruction> all = new ArrayList<>();
+            Set<Instruction> locals = new HashSet<>();
+
+            Map<LabelNode, LabelNode> labels = new HashMap<>();
+            for (AbstractInsnNode insn : mNode.instructions) {
+                if (insn instanceof LabelNode label) labels.put(label, new LabelNode());
+            }
 
             int returnCount = 0;
             int maxVar = -1;
             update:
-            for (AbstractInsnNode insn : mNode.instructions) {
+            for (AbstractInsnNode original : mNode.instructions) {
+                AbstractInsnNode insn = original.clone(labels);
                 if (insn instanceof MethodInsnNode invoke && invoke.owner.equals(classNode.name)) {
-                    for (Method other : clazz.getDeclaredMethods()) {
+                    for (Method other : methods) {
                         if (!other.getName().equals(invoke.name) || !Type.getType(other).getDescriptor().equals(invoke.desc)) continue;
                         if (other.isAnnotationPresent(FlowSignalOutput.class)) {
                             String outputName = other.getAnnotation(FlowSignalOutput.class).value();
@@ -184,7 +259,7 @@ public abstract class Node {
                 if (insn instanceof VarInsnNode v) {
                     int which = v.var;
                     maxVar = Math.max(maxVar, which);
-                    all.add(new Instruction() {
+                    Instruction local = new Instruction() {
                         @Override
                         public void prepare(NodeCompiler ctx) {}
 
@@ -200,13 +275,15 @@ public abstract class Node {
                         public Type returnType() {
                             return null;
                         }
-                    });
+                    };
+                    locals.add(local);
+                    all.add(local);
                     continue;
                 }
                 if (insn instanceof IincInsnNode v) {
                     int which = v.var;
                     maxVar = Math.max(maxVar, which);
-                    all.add(new Instruction() {
+                    Instruction local = new Instruction() {
                         @Override
                         public void prepare(NodeCompiler ctx) {}
 
@@ -222,7 +299,9 @@ public abstract class Node {
                         public Type returnType() {
                             return null;
                         }
-                    });
+                    };
+                    locals.add(local);
+                    all.add(local);
                     continue;
                 }
                 if (insn.getOpcode() >= Opcodes.IRETURN && insn.getOpcode() <= Opcodes.RETURN) {
@@ -230,7 +309,28 @@ public abstract class Node {
                     continue;
                 }
                 if (insn instanceof LdcInsnNode ldc && ldc.cst instanceof String str && str.startsWith("ID$")) {
-                    ldc.cst = allocateId(str.substring(3));
+                    String id = allocateId(str.substring(3));
+                    all.add(new Instruction() {
+                        @Override
+                        public void prepare(NodeCompiler ctx) {}
+
+                        @Override
+                        public InsnList compile(NodeCompiler ctx, int usedVars) {
+                            InsnList out = new InsnList();
+                            out.add(new LdcInsnNode(ctx.internalSlot(id)));
+                            return out;
+                        }
+
+                        @Override
+                        public Type returnType() {
+                            return Type.INT_TYPE;
+                        }
+                    });
+                    continue;
+                }
+                if (insn instanceof MethodInsnNode invoke && invoke.owner.equals(Type.getInternalName(CompiledNode.class))
+                        && (invoke.name.equals("getInternalVar") || invoke.name.equals("setInternalVar"))) {
+                    invoke.desc = invoke.desc.replace("Ljava/lang/String;", "I");
                 }
 
                 if (insn instanceof FrameNode || insn instanceof LineNumberNode) continue;
@@ -242,6 +342,18 @@ public abstract class Node {
                 throw new RuntimeException("Multiple returns are not allowed!");
             }
 
+            List<Instruction> loop = new ArrayList<>();
+            if (m.isAnnotationPresent(FlowLoop.class)) {
+                for (String name : m.getAnnotation(FlowLoop.class).value()) {
+                    for (NodeInput input : inputs) {
+                        if (input.getName().equals(name)) loop.add(input);
+                    }
+                    for (NodeOutput output : outputs) {
+                        if (output.getName().equals(name)) loop.add(output);
+                    }
+                }
+            }
+
             int reserved = maxVar + 1;
             return new Instruction() {
                 @Override
@@ -249,13 +361,19 @@ public abstract class Node {
                     for (Instruction i : all) {
                         ctx.prepare(i);
                     }
+                    if (!loop.isEmpty()) ctx.markLoop(this, loop);
                 }
 
                 @Override
                 public InsnList compile(NodeCompiler ctx, int usedVars) {
                     InsnList out = new InsnList();
+                    int flags = ctx.loopLocals(this);
+                    out.add(ctx.enterLoop(this, usedVars));
                     for (Instruction i : all) {
-                        out.add(i.compile(ctx, usedVars + reserved));
+                        if (flags > 0 && i instanceof NodeOutput exit && exit.type == SignalValue.INSTANCE && !loop.contains(exit)) {
+                            out.add(ctx.exitLoop(this, usedVars));
+                        }
+                        out.add(i.compile(ctx, locals.contains(i) ? usedVars + flags : usedVars + flags + reserved));
                     }
                     return out;
                 }
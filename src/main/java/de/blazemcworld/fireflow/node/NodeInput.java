@@ -10,6 +10,7 @@ import org.objectweb.asm.tree.InsnList;
 public class NodeInput implements Instruction {
     private final String name;
     public final Value type;
+    public boolean readOnly = false;
     private NodeOutput source;
     private Object inset;
     private Object defaultValue;
@@ -43,6 +44,10 @@ public class NodeInput implements Instruction {
         return inset;
     }
 
+    public NodeOutput getSource() {
+        return source;
+    }
+
     public void setInstruction(Instruction instructions) {
         if (type != SignalValue.INSTANCE) throw new IllegalStateException("Can only set instruction on signal inputs!");
         this.instruction = instructions;
@@ -63,7 +68,9 @@ public class NodeInput implements Instruction {
     @Override
     public InsnList compile(NodeCompiler ctx, int usedVars) {
         if (type == SignalValue.INSTANCE) {
-            return ctx.compile(instruction, usedVars);
+            InsnList out = readOnly ? new InsnList() : ctx.invalidateMemos();
+            out.add(ctx.compile(instruction, usedVars));
+            return ctx.split(out, usedVars);
         }
         if (source != null) {
             return ctx.compile(source, usedVars);
@@ -1,8 +1,10 @@
 package de.blazemcworld.fireflow.node;
 
 import de.blazemcworld.fireflow.node.impl.IfNode;
+import de.blazemcworld.fireflow.node.impl.RepeatNode;
 import de.blazemcworld.fireflow.node.impl.ScheduleNode;
 import de.blazemcworld.fireflow.node.impl.ValuesEqualNode;
+import de.blazemcworld.fireflow.node.impl.WaitNode;
 import de.blazemcworld.fireflow.node.impl.WhileNode;
 import de.blazemcworld.fireflow.node.impl.dictionary.DictionaryGetNode;
 import de.blazemcworld.fireflow.node.impl.dictionary.DictionaryKeysNode;
@@ -114,6 +116,7 @@ public class NodeList {
                 PositionYawNode::new,
                 PositionZNode::new,
                 RandomNumberNode::new,
+                RepeatNode::new,
                 ScaleVectorNode::new,
                 ScheduleNode::new,
                 SendActionBarNode::new,
@@ -140,6 +143,7 @@ public class NodeList {
                 VectorXNode::new,
                 VectorYNode::new,
                 VectorZNode::new,
+                WaitNode::new,
                 WhileNode::new
         );
 
@@ -11,6 +11,8 @@ public class NodeOutput implements Instruction {
     private final String name;
     public final Value type;
     public NodeInput target;
+    public boolean pure = false;
+    public boolean readOnly = false;
     private Instruction instruction = null;
 
     public NodeOutput(String name, Value type) {
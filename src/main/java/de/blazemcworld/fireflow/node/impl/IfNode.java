@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -20,6 +21,7 @@ public class IfNode extends Node {
         loadJava(IfNode.class);
     }
 
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void signal() {
         if (caseBool()) trueSignal();
@@ -0,0 +1,27 @@
+package de.blazemcworld.fireflow.node.impl;
+
+import de.blazemcworld.fireflow.compiler.instruction.SuspendInstruction;
+import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.NodeInput;
+import de.blazemcworld.fireflow.node.NodeOutput;
+import de.blazemcworld.fireflow.value.NumberValue;
+import de.blazemcworld.fireflow.value.SignalValue;
+
+/**
+ * Fires Now immediately, then fires Each every Interval ticks, Times times in total.
+ * There is no unbounded mode: a Times below one never fires Each.
+ */
+public class RepeatNode extends Node {
+
+    public RepeatNode() {
+        super("Repeat");
+
+        NodeInput signal = input("Signal", SignalValue.INSTANCE);
+        NodeInput interval = input("Interval", NumberValue.INSTANCE).withDefault(1);
+        NodeInput times = input("Times", NumberValue.INSTANCE).withDefault(1);
+        NodeOutput now = output("Now", SignalValue.INSTANCE);
+        NodeOutput each = output("Each", SignalValue.INSTANCE);
+
+        signal.setInstruction(new SuspendInstruction("repeat", each, now, interval, times));
+    }
+}
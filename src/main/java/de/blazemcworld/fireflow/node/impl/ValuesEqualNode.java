@@ -2,6 +2,8 @@ package de.blazemcworld.fireflow.node.impl;
 
 import de.blazemcworld.fireflow.compiler.StructDefinition;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
+import de.blazemcworld.fireflow.node.annotation.FlowSpecialization;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
@@ -23,14 +25,36 @@ public class ValuesEqualNode extends Node {
         input("Right", type);
         output("Result", ConditionValue.INSTANCE);
 
-        loadJava(ValuesEqualNode.class);
+        loadJava(ValuesEqualNode.class, type);
     }
 
+    @FlowPure
     @FlowValueOutput("Result")
     private static boolean result() {
         return Objects.equals(left(), right());
     }
 
+    @FlowPure
+    @FlowSpecialization("Number")
+    @FlowValueOutput("Result")
+    private static boolean numberResult() {
+        return Double.doubleToLongBits(leftNumber()) == Double.doubleToLongBits(rightNumber());
+    }
+
+    @FlowPure
+    @FlowSpecialization("Text")
+    @FlowValueOutput("Result")
+    private static boolean textResult() {
+        return leftText().equals(rightText());
+    }
+
+    @FlowPure
+    @FlowSpecialization("Condition")
+    @FlowValueOutput("Result")
+    private static boolean conditionResult() {
+        return leftCondition() == rightCondition();
+    }
+
     @FlowValueInput("Left")
     private static Object left() {
         throw new IllegalStateException();
@@ -41,6 +65,36 @@ public class ValuesEqualNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowValueInput("Left")
+    private static double leftNumber() {
+        throw new IllegalStateException();
+    }
+
+    @FlowValueInput("Right")
+    private static double rightNumber() {
+        throw new IllegalStateException();
+    }
+
+    @FlowValueInput("Left")
+    private static String leftText() {
+        throw new IllegalStateException();
+    }
+
+    @FlowValueInput("Right")
+    private static String rightText() {
+        throw new IllegalStateException();
+    }
+
+    @FlowValueInput("Left")
+    private static boolean leftCondition() {
+        throw new IllegalStateException();
+    }
+
+    @FlowValueInput("Right")
+    private static boolean rightCondition() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "Values Equal";
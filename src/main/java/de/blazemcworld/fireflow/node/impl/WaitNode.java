@@ -0,0 +1,29 @@
+package de.blazemcworld.fireflow.node.impl;
+
+import de.blazemcworld.fireflow.compiler.instruction.SuspendInstruction;
+import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.NodeInput;
+import de.blazemcworld.fireflow.node.NodeOutput;
+import de.blazemcworld.fireflow.value.NumberValue;
+import de.blazemcworld.fireflow.value.SignalValue;
+
+/**
+ * Continues the flow at Next after Delay ticks.
+ * Only the flow behind Next waits: a Wait inside a Foreach or While body does not pause the loop,
+ * each iteration resumes on its own with the node values (such as Current) it had when it waited,
+ * while local variables are shared and read their latest value.
+ * A Wait inside a function detaches from its caller: the call returns immediately and the
+ * function's exits do nothing after resuming.
+ */
+public class WaitNode extends Node {
+
+    public WaitNode() {
+        super("Wait");
+
+        NodeInput signal = input("Signal", SignalValue.INSTANCE);
+        NodeInput delay = input("Delay", NumberValue.INSTANCE).withDefault(1);
+        NodeOutput next = output("Next", SignalValue.INSTANCE);
+
+        signal.setInstruction(new SuspendInstruction("suspend", next, null, delay));
+    }
+}
@@ -3,6 +3,8 @@ package de.blazemcworld.fireflow.node.impl;
 import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowLoop;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -21,6 +23,8 @@ public class WhileNode extends Node {
         loadJava(WhileNode.class);
     }
 
+    @FlowLoop({"Condition", "Loop"})
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void signal() {
         while (condition()) {
@@ -2,6 +2,8 @@ package de.blazemcworld.fireflow.node.impl.dictionary;
 
 import de.blazemcworld.fireflow.compiler.StructDefinition;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
+import de.blazemcworld.fireflow.node.annotation.FlowSpecialization;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
@@ -25,14 +27,22 @@ public class DictionaryGetNode extends Node {
         input("Key", key);
         output("Value", value);
 
-        loadJava(DictionaryGetNode.class);
+        loadJava(DictionaryGetNode.class, value);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Value")
     private static Object value() {
         return dictionary().get(key());
     }
 
+    @FlowReadOnly
+    @FlowSpecialization("Number")
+    @FlowValueOutput("Value")
+    private static double numberValue() {
+        return dictionary().get(key()) instanceof Double d ? d : 0.0;
+    }
+
     @FlowValueInput("Dictionary")
     private static Map<Object, Object> dictionary() {
         throw new IllegalStateException();
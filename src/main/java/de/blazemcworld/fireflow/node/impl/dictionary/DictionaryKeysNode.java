@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.dictionary;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
@@ -32,7 +35,9 @@ public class DictionaryKeysNode extends Node {
 
     @FlowValueOutput("Keys")
     private static List<?> keys() {
-        return new ArrayList<>(dictionary().keySet());
+        List<?> keys = new ArrayList<>(dictionary().keySet());
+        ctx().allocate(MemoryMeter.LIST + MemoryMeter.REFERENCE * keys.size());
+        return keys;
     }
 
     @FlowValueInput("Dictionary")
@@ -40,6 +45,11 @@ public class DictionaryKeysNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "Dictionary Keys";
@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.dictionary;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -39,7 +42,15 @@ public class DictionarySetNode extends Node {
 
     @FlowSignalInput("Signal")
     private static void signal() {
-        dictionary().put(key(), value());
+        Object k = key();
+        Object v = value();
+        ctx().allocate(MemoryMeter.sizeOf(v));
+        Object previous = dictionary().put(k, v);
+        if (previous == null) {
+            ctx().allocate(MemoryMeter.ENTRY + MemoryMeter.sizeOf(k));
+        } else {
+            ctx().free(MemoryMeter.sizeOf(previous));
+        }
         next();
     }
 
@@ -58,6 +69,11 @@ public class DictionarySetNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "Dictionary Set";
@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.dictionary;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
 import de.blazemcworld.fireflow.value.DictionaryValue;
@@ -28,9 +31,15 @@ public class EmptyDictionaryNode extends Node {
 
     @FlowValueOutput("Dictionary")
     private static Map<Object, Object> dictionary() {
+        ctx().allocate(MemoryMeter.DICTIONARY);
         return new HashMap<>();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "Empty Dictionary";
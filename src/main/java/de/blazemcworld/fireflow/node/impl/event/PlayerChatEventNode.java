@@ -2,9 +2,11 @@ package de.blazemcworld.fireflow.node.impl.event;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.CodePartition;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PlayerValue;
 import de.blazemcworld.fireflow.value.SignalValue;
@@ -25,11 +27,13 @@ public class PlayerChatEventNode extends Node {
         loadJava(PlayerChatEventNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Player")
     private static Object player() {
         return ctx().getInternalVar("ID$player");
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Message")
     private static Object message() {
         return ctx().getInternalVar("ID$message");
@@ -42,12 +46,14 @@ public class PlayerChatEventNode extends Node {
 
     @Override
     public void register(CodeEvaluator evaluator) {
-        String entrypoint = evaluator.compiler.markRoot(signal);
-        evaluator.events.addListener(PlayerChatEvent.class, event -> {
-            CompiledNode context = evaluator.newContext();
-            context.setInternalVar(allocateId("player"), new PlayerValue.Reference(evaluator.space, event.getPlayer()));
-            context.setInternalVar(allocateId("message"), event.getMessage());
-            context.emit(entrypoint);
-        });
+        if (signal.target == null) return;
+        CodePartition partition = evaluator.partition(this);
+        int entrypoint = partition.compiler.markRoot(signal);
+        int playerSlot = partition.compiler.internalSlot(allocateId("player"));
+        int messageSlot = partition.compiler.internalSlot(allocateId("message"));
+        evaluator.dispatcher(PlayerChatEvent.class, event -> new Object[] {
+                new PlayerValue.Reference(evaluator.space, event.getPlayer()),
+                event.getMessage()
+        }).add(partition, entrypoint, playerSlot, messageSlot);
     }
 }
@@ -2,9 +2,11 @@ package de.blazemcworld.fireflow.node.impl.event;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.CodePartition;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PlayerValue;
 import de.blazemcworld.fireflow.value.SignalValue;
@@ -26,11 +28,13 @@ public class PlayerInteractEventNode extends Node {
         loadJava(PlayerInteractEventNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Player")
     private static Object player() {
         return ctx().getInternalVar("ID$player");
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Hand")
     private static Object hand() {
         return ctx().getInternalVar("ID$hand");
@@ -43,19 +47,19 @@ public class PlayerInteractEventNode extends Node {
 
     @Override
     public void register(CodeEvaluator evaluator) {
-        String entrypoint = evaluator.compiler.markRoot(signal);
-        evaluator.events.addListener(PlayerBlockInteractEvent.class, event -> {
-            CompiledNode context = evaluator.newContext();
-            context.setInternalVar(allocateId("player"), new PlayerValue.Reference(evaluator.space, event.getPlayer()));
-            context.setInternalVar(allocateId("hand"), event.getHand().name().toLowerCase());
-            context.emit(entrypoint);
-        });
-
-        evaluator.events.addListener(PlayerEntityInteractEvent.class, event -> {
-            CompiledNode context = evaluator.newContext();
-            context.setInternalVar(allocateId("player"), new PlayerValue.Reference(evaluator.space, event.getPlayer()));
-            context.setInternalVar(allocateId("hand"), event.getHand().name().toLowerCase());
-            context.emit(entrypoint);
-        });
+        if (signal.target == null) return;
+        CodePartition partition = evaluator.partition(this);
+        int entrypoint = partition.compiler.markRoot(signal);
+        int playerSlot = partition.compiler.internalSlot(allocateId("player"));
+        int handSlot = partition.compiler.internalSlot(allocateId("hand"));
+        evaluator.dispatcher(PlayerBlockInteractEvent.class, event -> new Object[] {
+                new PlayerValue.Reference(evaluator.space, event.getPlayer()),
+                event.getHand().name().toLowerCase()
+        }).add(partition, entrypoint, playerSlot, handSlot);
+
+        evaluator.dispatcher(PlayerEntityInteractEvent.class, event -> new Object[] {
+                new PlayerValue.Reference(evaluator.space, event.getPlayer()),
+                event.getHand().name().toLowerCase()
+        }).add(partition, entrypoint, playerSlot, handSlot);
     }
 }
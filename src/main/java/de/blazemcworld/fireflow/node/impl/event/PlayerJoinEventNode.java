@@ -2,9 +2,11 @@ package de.blazemcworld.fireflow.node.impl.event;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.CodePartition;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PlayerValue;
 import de.blazemcworld.fireflow.value.SignalValue;
@@ -23,6 +25,7 @@ public class PlayerJoinEventNode extends Node {
         loadJava(PlayerJoinEventNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Player")
     private static Object player() {
         return ctx().getInternalVar("ID$player");
@@ -35,11 +38,12 @@ public class PlayerJoinEventNode extends Node {
 
     @Override
     public void register(CodeEvaluator evaluator) {
-        String entrypoint = evaluator.compiler.markRoot(signal);
-        evaluator.events.addListener(PlayerSpawnEvent.class, event -> {
-            CompiledNode context = evaluator.newContext();
-            context.setInternalVar(allocateId("player"), new PlayerValue.Reference(evaluator.space, event.getPlayer()));
-            context.emit(entrypoint);
-        });
+        if (signal.target == null) return;
+        CodePartition partition = evaluator.partition(this);
+        int entrypoint = partition.compiler.markRoot(signal);
+        int playerSlot = partition.compiler.internalSlot(allocateId("player"));
+        evaluator.dispatcher(PlayerSpawnEvent.class, event -> new Object[] {
+                new PlayerValue.Reference(evaluator.space, event.getPlayer())
+        }).add(partition, entrypoint, playerSlot);
     }
 }
@@ -2,9 +2,11 @@ package de.blazemcworld.fireflow.node.impl.event;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.CodePartition;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.util.PlayerExitInstanceEvent;
 import de.blazemcworld.fireflow.value.PlayerValue;
@@ -23,6 +25,7 @@ public class PlayerLeaveEventNode extends Node {
         loadJava(PlayerLeaveEventNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Player")
     private static Object player() {
         return ctx().getInternalVar("ID$player");
@@ -36,12 +39,13 @@ public class PlayerLeaveEventNode extends Node {
 
     @Override
     public void register(CodeEvaluator evaluator) {
-        String entrypoint = evaluator.compiler.markRoot(signal);
-        evaluator.events.addListener(PlayerExitInstanceEvent.class, event -> {
-            CompiledNode context = evaluator.newContext();
-            context.setInternalVar(allocateId("player"), new PlayerValue.Reference(evaluator.space, event.getPlayer()));
-            context.emit(entrypoint);
-        });
+        if (signal.target == null) return;
+        CodePartition partition = evaluator.partition(this);
+        int entrypoint = partition.compiler.markRoot(signal);
+        int playerSlot = partition.compiler.internalSlot(allocateId("player"));
+        evaluator.dispatcher(PlayerExitInstanceEvent.class, event -> new Object[] {
+                new PlayerValue.Reference(evaluator.space, event.getPlayer())
+        }).add(partition, entrypoint, playerSlot);
     }
 
 
@@ -2,9 +2,11 @@ package de.blazemcworld.fireflow.node.impl.event;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.CodePartition;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PlayerValue;
 import de.blazemcworld.fireflow.value.SignalValue;
@@ -25,11 +27,13 @@ public class PlayerPunchPlayerEventNode extends Node {
         loadJava(PlayerPunchPlayerEventNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Player")
     private static Object player() {
         return ctx().getInternalVar("ID$player");
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Other")
     private static Object other() {
         return ctx().getInternalVar("ID$other");
@@ -42,16 +46,17 @@ public class PlayerPunchPlayerEventNode extends Node {
 
     @Override
     public void register(CodeEvaluator evaluator) {
-        String entrypoint = evaluator.compiler.markRoot(signal);
-        evaluator.events.addListener(EntityAttackEvent.class, event -> {
-            if (event.getEntity() instanceof Player player) {
-                if (event.getTarget() instanceof Player other) {
-                    CompiledNode context = evaluator.newContext();
-                    context.setInternalVar(allocateId("player"), new PlayerValue.Reference(evaluator.space, player));
-                    context.setInternalVar(allocateId("other"), new PlayerValue.Reference(evaluator.space, other));
-                    context.emit(entrypoint);
-                }
-            }
-        });
+        if (signal.target == null) return;
+        CodePartition partition = evaluator.partition(this);
+        int entrypoint = partition.compiler.markRoot(signal);
+        int playerSlot = partition.compiler.internalSlot(allocateId("player"));
+        int otherSlot = partition.compiler.internalSlot(allocateId("other"));
+        evaluator.dispatcher(EntityAttackEvent.class, event -> {
+            if (!(event.getEntity() instanceof Player player) || !(event.getTarget() instanceof Player other)) return null;
+            return new Object[] {
+                    new PlayerValue.Reference(evaluator.space, player),
+                    new PlayerValue.Reference(evaluator.space, other)
+            };
+        }).add(partition, entrypoint, playerSlot, otherSlot);
     }
 }
@@ -12,6 +12,7 @@ import java.util.List;
 public class ListSizeNode extends ExtractionNode {
     public ListSizeNode(ListValue type) {
         super(type.getFullName() + " Size", type, NumberValue.INSTANCE);
+        output.readOnly = true;
         output.setInstruction(new MultiInstruction(NumberValue.INSTANCE.getType(), NumberValue.INSTANCE.cast(
                 new InstanceMethodInstruction(List.class, input, "size", Type.INT_TYPE, List.of())
         )));
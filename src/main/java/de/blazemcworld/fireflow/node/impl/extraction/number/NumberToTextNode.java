@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.number;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -14,6 +15,7 @@ public class NumberToTextNode extends ExtractionNode {
         loadJava(NumberToTextNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("")
     private static String output() {
         return Double.toString(input());
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.player;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.ConditionValue;
@@ -14,6 +15,7 @@ public class PlayerIsPlayingNode extends ExtractionNode {
         loadJava(PlayerIsPlayingNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("")
     private static boolean output() {
         return input().resolve() != null;
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.player;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.ConditionValue;
@@ -15,6 +16,7 @@ public class PlayerIsSneakingNode extends ExtractionNode {
         loadJava(PlayerIsSneakingNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("")
     private static boolean output() {
         Player player = input().resolve();
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.player;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PlayerValue;
@@ -13,6 +14,7 @@ public class PlayerUUIDNode extends ExtractionNode {
         loadJava(PlayerUUIDNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("")
     private static String output() {
         return input().uuid().toString();
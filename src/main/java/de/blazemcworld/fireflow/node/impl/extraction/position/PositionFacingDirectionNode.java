@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.position;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PositionValue;
@@ -16,6 +17,7 @@ public class PositionFacingDirectionNode extends ExtractionNode {
         loadJava(PositionFacingDirectionNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("")
     private static Vec output() {
         return input().direction();
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.position;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -13,6 +14,7 @@ public class PositionYawNode extends ExtractionNode {
         super("Position Yaw", PositionValue.INSTANCE, NumberValue.INSTANCE);
     }
 
+    @FlowPure
     @FlowValueOutput("")
     private static double output() {
         return input().yaw();
@@ -6,18 +6,16 @@ import de.blazemcworld.fireflow.node.ExtractionNode;
 import de.blazemcworld.fireflow.value.StructValue;
 import de.blazemcworld.fireflow.value.Value;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
-import org.objectweb.asm.tree.InsnNode;
-import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
 
 public class StructFieldNode extends ExtractionNode {
     public StructFieldNode(StructValue type, int i, StructValue.Field field) {
         super(field.name(), type, field.type());
+        output.readOnly = true;
         Value fieldType = field.type();
         output.setInstruction(new MultiInstruction(fieldType.getType(),
                 input,
-                new RawInstruction(Type.VOID_TYPE, new LdcInsnNode(i)),
-                fieldType.cast(new RawInstruction(Type.VOID_TYPE, new InsnNode(Opcodes.AALOAD)))
+                new RawInstruction(fieldType.getType(), new FieldInsnNode(Opcodes.GETFIELD, type.className(), "f" + i, fieldType.getType().getDescriptor()))
         ));
     }
 }
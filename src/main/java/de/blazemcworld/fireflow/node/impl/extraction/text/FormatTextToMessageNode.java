@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.text;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.MessageValue;
@@ -14,6 +15,7 @@ public class FormatTextToMessageNode extends ExtractionNode {
         loadJava(FormatTextToMessageNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("")
     private static Component output() {
         return MessageValue.MM.deserialize(input());
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.vector;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.VectorValue;
@@ -14,6 +15,7 @@ public class NormalizedVectorNode extends ExtractionNode {
         loadJava(NormalizedVectorNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("")
     private static Vec normalize() {
         return vector().normalize();
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.extraction.vector;
 
 import de.blazemcworld.fireflow.node.ExtractionNode;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -15,6 +16,7 @@ public class VectorXNode extends ExtractionNode {
         loadJava(VectorXNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("")
     private static double output() {
         return input().x();
@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.list;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
 import de.blazemcworld.fireflow.value.ListValue;
@@ -25,9 +28,15 @@ public class EmptyListNode extends Node {
 
     @FlowValueOutput("List")
     private static List<Object> list() {
+        ctx().allocate(MemoryMeter.LIST);
         return new ArrayList<>();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "Empty List";
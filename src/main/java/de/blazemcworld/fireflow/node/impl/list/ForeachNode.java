@@ -29,6 +29,8 @@ public class ForeachNode extends Node {
         loadJava(ForeachNode.class);
     }
 
+    @FlowLoop("Loop")
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void signal() {
         List<Object> copy = new ArrayList<>(list());
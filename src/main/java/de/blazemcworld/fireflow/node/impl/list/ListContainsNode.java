@@ -2,6 +2,8 @@ package de.blazemcworld.fireflow.node.impl.list;
 
 import de.blazemcworld.fireflow.compiler.StructDefinition;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
+import de.blazemcworld.fireflow.node.annotation.FlowSpecialization;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
@@ -23,14 +25,28 @@ public class ListContainsNode extends Node {
         input("Value", type);
         output("Result", ConditionValue.INSTANCE);
 
-        loadJava(ListContainsNode.class);
+        loadJava(ListContainsNode.class, type);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Result")
     private static boolean result() {
         return list().contains(value());
     }
 
+    @FlowReadOnly
+    @FlowSpecialization("Number")
+    @FlowValueOutput("Result")
+    private static boolean numberResult() {
+        List<Object> list = list();
+        long value = Double.doubleToLongBits(numberValue());
+        boolean found = false;
+        for (int i = 0; i < list.size() && !found; i++) {
+            found = list.get(i) instanceof Double d && Double.doubleToLongBits(d) == value;
+        }
+        return found;
+    }
+
     @FlowValueInput("List")
     private static List<Object> list() {
         throw new IllegalStateException();
@@ -41,6 +57,11 @@ public class ListContainsNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowValueInput("Value")
+    private static double numberValue() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "List Contains";
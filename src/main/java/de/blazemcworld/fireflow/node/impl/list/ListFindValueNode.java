@@ -2,6 +2,8 @@ package de.blazemcworld.fireflow.node.impl.list;
 
 import de.blazemcworld.fireflow.compiler.StructDefinition;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
+import de.blazemcworld.fireflow.node.annotation.FlowSpecialization;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
@@ -24,14 +26,28 @@ public class ListFindValueNode extends Node {
 
         output("Index", NumberValue.INSTANCE);
 
-        loadJava(ListFindValueNode.class);
+        loadJava(ListFindValueNode.class, type);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Index")
     private static double index() {
         return list().indexOf(value());
     }
 
+    @FlowReadOnly
+    @FlowSpecialization("Number")
+    @FlowValueOutput("Index")
+    private static double numberIndex() {
+        List<Object> list = list();
+        long value = Double.doubleToLongBits(numberValue());
+        int index = -1;
+        for (int i = 0; i < list.size() && index < 0; i++) {
+            if (list.get(i) instanceof Double d && Double.doubleToLongBits(d) == value) index = i;
+        }
+        return index;
+    }
+
     @FlowValueInput("List")
     private static List<Object> list() {
         throw new IllegalStateException();
@@ -42,6 +58,11 @@ public class ListFindValueNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowValueInput("Value")
+    private static double numberValue() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "List Find";
@@ -2,6 +2,7 @@ package de.blazemcworld.fireflow.node.impl.list;
 
 import de.blazemcworld.fireflow.compiler.StructDefinition;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.AllValues;
@@ -26,6 +27,7 @@ public class ListGetNode extends Node {
         loadJava(ListGetNode.class);
     }
 
+    @FlowReadOnly
     @FlowValueOutput("Value")
     private static Object value() {
         return list().get((int) index());
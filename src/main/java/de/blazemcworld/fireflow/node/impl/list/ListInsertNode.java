@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.list;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -28,7 +31,9 @@ public class ListInsertNode extends Node {
 
     @FlowSignalInput("Signal")
     private static void run() {
-        list().add(Math.max(0, Math.min((int) index(), list().size())), value());
+        Object v = value();
+        ctx().allocate(MemoryMeter.REFERENCE + MemoryMeter.sizeOf(v));
+        list().add(Math.max(0, Math.min((int) index(), list().size())), v);
         next();
     }
 
@@ -52,6 +57,11 @@ public class ListInsertNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "List Insert";
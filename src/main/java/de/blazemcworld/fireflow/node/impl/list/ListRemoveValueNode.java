@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.list;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -30,7 +33,8 @@ public class ListRemoveValueNode extends Node {
 
     @FlowSignalInput("Signal")
     private static void run() {
-        list().remove(value());
+        Object v = value();
+        if (list().remove(v)) ctx().free(MemoryMeter.REFERENCE + MemoryMeter.sizeOf(v));
         next();
     }
 
@@ -49,6 +53,11 @@ public class ListRemoveValueNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "List Remove";
@@ -1,7 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.list;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -34,7 +37,10 @@ public class ListSetNode extends Node {
     @FlowSignalInput("Signal")
     private static void signal() {
         List<Object> l = list();
-        l.set(Math.max(0, Math.min(l.size() - 1, (int) index())), value());
+        Object v = value();
+        Object old = l.set(Math.max(0, Math.min(l.size() - 1, (int) index())), v);
+        ctx().free(MemoryMeter.sizeOf(old));
+        ctx().allocate(MemoryMeter.sizeOf(v));
         next();
     }
 
@@ -53,6 +59,11 @@ public class ListSetNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+
     @Override
     public String getBaseName() {
         return "List Set";
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.number;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -16,6 +17,7 @@ public class DivideNumbersNode extends Node {
         loadJava(DivideNumbersNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Result")
     private static double divide()  {
         return left() / right();
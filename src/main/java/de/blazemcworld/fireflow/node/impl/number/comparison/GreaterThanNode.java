@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.number.comparison;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.ConditionValue;
@@ -18,6 +19,7 @@ public class GreaterThanNode extends Node {
         loadJava(GreaterThanNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Result")
     private static boolean result() {
         return left() > right();
@@ -1,6 +1,9 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -19,13 +22,21 @@ public class ClearTitleNode extends Node {
         loadJava(ClearTitleNode.class);
     }
 
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.clearTitle();
+        if (p != null) {
+            if (ctx().defersEffects()) ctx().effect(apply(p));
+            else p.clearTitle();
+        }
         next();
     }
 
+    public static Runnable apply(Player p) {
+        return p::clearTitle;
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -35,4 +46,9 @@ public class ClearTitleNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
-}
\ No newline at end of file
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+}
@@ -1,6 +1,9 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -24,22 +27,34 @@ public class DisplayPlayerDamageAnimationNode extends Node {
         loadJava(DisplayPlayerDamageAnimationNode.class);
     }
 
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
         if (p != null) {
-            p.sendPacketToViewersAndSelf(new EntityAnimationPacket(p.getEntityId(), EntityAnimationPacket.Animation.TAKE_DAMAGE));
-
-            if (criticals()) {
-                p.sendPacketToViewersAndSelf(new EntityAnimationPacket(p.getEntityId(), EntityAnimationPacket.Animation.CRITICAL_EFFECT));
-            }
-            if (magicCriticals()) {
-                p.sendPacketToViewersAndSelf(new EntityAnimationPacket(p.getEntityId(), EntityAnimationPacket.Animation.MAGICAL_CRITICAL_EFFECT));
-            }
+            boolean criticals = criticals();
+            boolean magicCriticals = magicCriticals();
+            if (ctx().defersEffects()) ctx().effect(apply(p, criticals, magicCriticals));
+            else show(p, criticals, magicCriticals);
         }
         next();
     }
 
+    public static Runnable apply(Player p, boolean criticals, boolean magicCriticals) {
+        return () -> show(p, criticals, magicCriticals);
+    }
+
+    public static void show(Player p, boolean criticals, boolean magicCriticals) {
+        p.sendPacketToViewersAndSelf(new EntityAnimationPacket(p.getEntityId(), EntityAnimationPacket.Animation.TAKE_DAMAGE));
+
+        if (criticals) {
+            p.sendPacketToViewersAndSelf(new EntityAnimationPacket(p.getEntityId(), EntityAnimationPacket.Animation.CRITICAL_EFFECT));
+        }
+        if (magicCriticals) {
+            p.sendPacketToViewersAndSelf(new EntityAnimationPacket(p.getEntityId(), EntityAnimationPacket.Animation.MAGICAL_CRITICAL_EFFECT));
+        }
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -60,4 +75,8 @@ public class DisplayPlayerDamageAnimationNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
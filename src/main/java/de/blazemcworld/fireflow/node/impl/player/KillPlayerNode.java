@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -22,10 +24,17 @@ public class KillPlayerNode extends Node {
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.kill();
+        if (p != null) {
+            if (ctx().defersEffects()) ctx().effect(apply(p));
+            else p.kill();
+        }
         next();
     }
 
+    public static Runnable apply(Player p) {
+        return p::kill;
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -35,4 +44,9 @@ public class KillPlayerNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
-}
\ No newline at end of file
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+}
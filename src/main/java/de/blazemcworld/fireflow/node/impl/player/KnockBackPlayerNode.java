@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -30,11 +32,17 @@ public class KnockBackPlayerNode extends Node {
         Player p = player().resolve();
         if (p != null) {
             Pos origin = origin();
-            p.takeKnockback((float) strength(), origin.x(), origin.z());
+            float strength = (float) strength();
+            if (ctx().defersEffects()) ctx().effect(apply(p, strength, origin.x(), origin.z()));
+            else p.takeKnockback(strength, origin.x(), origin.z());
         }
         next();
     }
 
+    public static Runnable apply(Player p, float strength, double x, double z) {
+        return () -> p.takeKnockback(strength, x, z);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -55,4 +63,8 @@ public class KnockBackPlayerNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
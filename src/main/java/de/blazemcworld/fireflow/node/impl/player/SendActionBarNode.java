@@ -1,6 +1,9 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -22,13 +25,22 @@ public class SendActionBarNode extends Node {
         loadJava(SendActionBarNode.class);
     }
 
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.sendActionBar(message());
+        if (p != null) {
+            Component message = message();
+            if (ctx().defersEffects()) ctx().effect(apply(p, message));
+            else p.sendActionBar(message);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, Component message) {
+        return () -> p.sendActionBar(message);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -43,4 +55,9 @@ public class SendActionBarNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
-}
\ No newline at end of file
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+}
@@ -1,6 +1,9 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -23,13 +26,22 @@ public class SendMessageNode extends Node {
         loadJava(SendMessageNode.class);
     }
 
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.sendMessage(message());
+        if (p != null) {
+            Component message = message();
+            if (ctx().defersEffects()) ctx().effect(apply(p, message));
+            else p.sendMessage(message);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, Component message) {
+        return () -> p.sendMessage(message);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -44,4 +56,9 @@ public class SendMessageNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
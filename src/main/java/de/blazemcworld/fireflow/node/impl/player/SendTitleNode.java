@@ -1,6 +1,9 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
+import de.blazemcworld.fireflow.node.annotation.FlowReadOnly;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -24,13 +27,22 @@ public class SendTitleNode extends Node {
         loadJava(SendTitleNode.class);
     }
 
+    @FlowReadOnly
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.showTitle(Title.title(title(), subtitle()));
+        if (p != null) {
+            Title title = Title.title(title(), subtitle());
+            if (ctx().defersEffects()) ctx().effect(apply(p, title));
+            else p.showTitle(title);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, Title title) {
+        return () -> p.showTitle(title);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -50,4 +62,9 @@ public class SendTitleNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
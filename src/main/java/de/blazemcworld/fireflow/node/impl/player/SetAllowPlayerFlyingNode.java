@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -24,10 +26,18 @@ public class SetAllowPlayerFlyingNode extends Node {
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.setAllowFlying(state());
+        if (p != null) {
+            boolean state = state();
+            if (ctx().defersEffects()) ctx().effect(apply(p, state));
+            else p.setAllowFlying(state);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, boolean state) {
+        return () -> p.setAllowFlying(state);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -42,4 +52,9 @@ public class SetAllowPlayerFlyingNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
-}
\ No newline at end of file
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+}
@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -24,10 +26,18 @@ public class SetExperienceNode extends Node {
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.setExp((float) Math.clamp(experience() / 100.0, 0, 1));
+        if (p != null) {
+            float experience = (float) Math.clamp(experience() / 100.0, 0, 1);
+            if (ctx().defersEffects()) ctx().effect(apply(p, experience));
+            else p.setExp(experience);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, float experience) {
+        return () -> p.setExp(experience);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -42,4 +52,9 @@ public class SetExperienceNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
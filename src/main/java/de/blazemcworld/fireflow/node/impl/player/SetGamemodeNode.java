@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -29,13 +31,18 @@ public class SetGamemodeNode extends Node {
             String n = gamemode().toUpperCase();
             for (GameMode g : GameMode.values()) {
                 if (n.equals(g.name())) {
-                    p.setGameMode(g);
+                    if (ctx().defersEffects()) ctx().effect(apply(p, g));
+                    else p.setGameMode(g);
                 }
             }
         }
         next();
     }
 
+    public static Runnable apply(Player p, GameMode gamemode) {
+        return () -> p.setGameMode(gamemode);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player()  {
         throw new IllegalStateException();
@@ -50,4 +57,9 @@ public class SetGamemodeNode extends Node {
     private static void next()  {
         throw new IllegalStateException();
     }
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -24,10 +26,18 @@ public class SetLevelNode extends Node {
     @FlowSignalInput("Signal")
     private static void run() {
         Player p = player().resolve();
-        if (p != null) p.setLevel((int) level());
+        if (p != null) {
+            int level = (int) level();
+            if (ctx().defersEffects()) ctx().effect(apply(p, level));
+            else p.setLevel(level);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, int level) {
+        return () -> p.setLevel(level);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -42,4 +52,9 @@ public class SetLevelNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
-}
\ No newline at end of file
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
+}
@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -27,11 +29,16 @@ public class SetPlayerElytraFlyingNode extends Node {
         Player p = player().resolve();
         if (p != null) {
             boolean flying = boolCase();
-            p.setFlyingWithElytra(flying);
+            if (ctx().defersEffects()) ctx().effect(apply(p, flying));
+            else p.setFlyingWithElytra(flying);
         }
         next();
     }
 
+    public static Runnable apply(Player p, boolean flying) {
+        return () -> p.setFlyingWithElytra(flying);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -46,4 +53,9 @@ public class SetPlayerElytraFlyingNode extends Node {
     private static void next() {
         throw new IllegalStateException();
     }
+
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -23,10 +25,18 @@ public class SetPlayerFireTicksNode extends Node {
     @FlowSignalInput("Signal")
     private static void run()  {
         Player p = player().resolve();
-        if (p != null) p.setFireTicks((int) ticks());
+        if (p != null) {
+            int ticks = (int) ticks();
+            if (ctx().defersEffects()) ctx().effect(apply(p, ticks));
+            else p.setFireTicks(ticks);
+        }
         next();
     }
 
+    public static Runnable apply(Player p, int ticks) {
+        return () -> p.setFireTicks(ticks);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player()   {
         throw new IllegalStateException();
@@ -43,4 +53,8 @@ public class SetPlayerFireTicksNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
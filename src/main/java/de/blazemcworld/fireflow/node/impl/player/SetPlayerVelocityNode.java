@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -27,11 +29,17 @@ public class SetPlayerVelocityNode extends Node {
     private static void run() {
         Player p = player().resolve();
         if (p != null) {
-            p.setVelocity(velocity());
+            Vec velocity = velocity();
+            if (ctx().defersEffects()) ctx().effect(apply(p, velocity));
+            else p.setVelocity(velocity);
         }
         next();
     }
 
+    public static Runnable apply(Player p, Vec velocity) {
+        return () -> p.setVelocity(velocity);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -47,4 +55,8 @@ public class SetPlayerVelocityNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.player;
 
+import de.blazemcworld.fireflow.compiler.CompiledNode;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowContext;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalInput;
 import de.blazemcworld.fireflow.node.annotation.FlowSignalOutput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
@@ -29,12 +31,17 @@ public class TeleportPlayerNode extends Node {
         if (p != null) {
             Pos pos = position();
             if (Math.abs(pos.x()) < 999999 && Math.abs(pos.y()) < 999999 && Math.abs(pos.z()) < 999999) {
-                p.teleport(pos);
+                if (ctx().defersEffects()) ctx().effect(apply(p, pos));
+                else p.teleport(pos);
             }
         }
         next();
     }
 
+    public static Runnable apply(Player p, Pos pos) {
+        return () -> p.teleport(pos);
+    }
+
     @FlowValueInput("Player")
     private static PlayerValue.Reference player() {
         throw new IllegalStateException();
@@ -50,4 +57,8 @@ public class TeleportPlayerNode extends Node {
         throw new IllegalStateException();
     }
 
+    @FlowContext
+    private static CompiledNode ctx() {
+        throw new IllegalStateException();
+    }
 }
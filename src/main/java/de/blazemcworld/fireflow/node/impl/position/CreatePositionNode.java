@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.position;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -22,6 +23,7 @@ public class CreatePositionNode extends Node {
         loadJava(CreatePositionNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Position")
     private static Pos pack() {
         return new Pos(x(), y(), z(), (float) pitch(), (float) yaw());
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.position;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.PositionValue;
@@ -19,6 +20,7 @@ public class ShiftPositionVectorNode extends Node {
         loadJava(ShiftPositionVectorNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Position")
     private static Pos shift() {
         return pos().add(vec());
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.position;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -21,6 +22,7 @@ public class ShiftPositionXYZNode extends Node {
         loadJava(ShiftPositionXYZNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Position")
     private static Pos shift() {
         return pos().add(x(), y(), z());
@@ -8,9 +8,7 @@ import de.blazemcworld.fireflow.node.NodeInput;
 import de.blazemcworld.fireflow.value.StructValue;
 import de.blazemcworld.fireflow.value.Value;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
-import org.objectweb.asm.tree.InsnNode;
-import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,10 +21,9 @@ public class UnpackStructNode extends Node {
         for (int i = 0; i < type.fields.size(); i++) {
             StructValue.Field field = type.fields.get(i);
             Value fieldType = field.type();
-            output(field.name(), fieldType).setInstruction(new MultiInstruction(Type.getType("Ljava/lang/Object;"),
+            output(field.name(), fieldType).setInstruction(new MultiInstruction(fieldType.getType(),
                     struct,
-                    new RawInstruction(Type.VOID_TYPE, new LdcInsnNode(i)),
-                    fieldType.cast(new RawInstruction(Type.VOID_TYPE, new InsnNode(Opcodes.AALOAD)))
+                    new RawInstruction(fieldType.getType(), new FieldInsnNode(Opcodes.GETFIELD, type.className(), "f" + i, fieldType.getType().getDescriptor()))
             ));
         }
     }
@@ -1,6 +1,8 @@
 package de.blazemcworld.fireflow.node.impl.text;
 
+import de.blazemcworld.fireflow.evaluation.MemoryMeter;
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.TextValue;
@@ -16,9 +18,10 @@ public class ConcatTextsNode extends Node {
         loadJava(ConcatTextsNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Result")
     private static String concat()  {
-        return left() + right();
+        return MemoryMeter.concat(left(), right());
     }
 
     @FlowValueInput("Left")
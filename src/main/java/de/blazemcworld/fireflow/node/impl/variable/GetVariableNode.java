@@ -1,19 +1,23 @@
 package de.blazemcworld.fireflow.node.impl.variable;
 
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
-import de.blazemcworld.fireflow.compiler.instruction.InstanceMethodInstruction;
+import de.blazemcworld.fireflow.compiler.instruction.Instruction;
 import de.blazemcworld.fireflow.compiler.instruction.MultiInstruction;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeInput;
 import de.blazemcworld.fireflow.node.NodeOutput;
 import de.blazemcworld.fireflow.value.AllValues;
 import de.blazemcworld.fireflow.value.TextValue;
 import de.blazemcworld.fireflow.value.Value;
-import it.unimi.dsi.fastutil.Pair;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
 
 import java.util.List;
-import java.util.Map;
 
 public class GetVariableNode extends Node {
 
@@ -27,12 +31,36 @@ public class GetVariableNode extends Node {
 
         NodeInput name = input("Name", TextValue.INSTANCE);
         NodeOutput value = output("Value", type);
+        value.readOnly = true;
 
+        Instruction store = scope.getStore();
         value.setInstruction(new MultiInstruction(type.getType(),
-                type.cast(new InstanceMethodInstruction(Map.class, scope.getStore(), "get",
-                        Type.getType(Object.class),
-                        List.of(Pair.of(Type.getType(Object.class), name))
-                ))
+                type.cast(new Instruction() {
+                    @Override
+                    public void prepare(NodeCompiler ctx) {
+                        ctx.prepare(store);
+                        ctx.prepare(name);
+                    }
+
+                    @Override
+                    public InsnList compile(NodeCompiler ctx, int usedVars) {
+                        InsnList out = new InsnList();
+                        out.add(ctx.compile(store, usedVars));
+                        if (name.getInset() instanceof String constant) {
+                            out.add(new LdcInsnNode(scope.getNames(ctx).slot(constant)));
+                            out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(VariableStore.class), "get", "(I)Ljava/lang/Object;"));
+                        } else {
+                            out.add(ctx.compile(name, usedVars));
+                            out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(VariableStore.class), "get", "(Ljava/lang/Object;)Ljava/lang/Object;"));
+                        }
+                        return out;
+                    }
+
+                    @Override
+                    public Type returnType() {
+                        return Type.getType(Object.class);
+                    }
+                })
         ));
     }
 
@@ -1,15 +1,15 @@
 package de.blazemcworld.fireflow.node.impl.variable;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.instruction.GetInstanceFieldInstruction;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
 import de.blazemcworld.fireflow.compiler.instruction.RawInstruction;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.VarInsnNode;
 
-import java.util.Map;
-
 public class LocalVariableScope implements VariableScope {
     public static final LocalVariableScope INSTANCE = new LocalVariableScope();
     private LocalVariableScope() {}
@@ -23,7 +23,12 @@ public class LocalVariableScope implements VariableScope {
     public Instruction getStore() {
         return new GetInstanceFieldInstruction(CompiledNode.class,
                 new RawInstruction(Type.getType(CompiledNode.class), new VarInsnNode(Opcodes.ALOAD, 0)),
-                "locals", Type.getType(Map.class)
+                "locals", Type.getType(VariableStore.class)
         );
     }
+
+    @Override
+    public VariableStore.Names getNames(NodeCompiler ctx) {
+        return ctx.evaluator.localNames;
+    }
 }
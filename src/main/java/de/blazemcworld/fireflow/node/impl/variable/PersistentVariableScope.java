@@ -1,16 +1,16 @@
 package de.blazemcworld.fireflow.node.impl.variable;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.instruction.GetInstanceFieldInstruction;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
 import de.blazemcworld.fireflow.compiler.instruction.RawInstruction;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import de.blazemcworld.fireflow.space.Space;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.VarInsnNode;
 
-import java.util.Map;
-
 public class PersistentVariableScope implements VariableScope {
     public static final PersistentVariableScope INSTANCE = new PersistentVariableScope();
     private PersistentVariableScope() {}
@@ -27,7 +27,12 @@ public class PersistentVariableScope implements VariableScope {
                         new RawInstruction(Type.getType(CompiledNode.class), new VarInsnNode(Opcodes.ALOAD, 0)),
                         "space", Type.getType(Space.class)
                 ),
-                "variables", Type.getType(Map.class)
+                "variables", Type.getType(VariableStore.class)
         );
     }
+
+    @Override
+    public VariableStore.Names getNames(NodeCompiler ctx) {
+        return ctx.evaluator.persistentNames;
+    }
 }
@@ -1,9 +1,10 @@
 package de.blazemcworld.fireflow.node.impl.variable;
 
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.StructDefinition;
-import de.blazemcworld.fireflow.compiler.instruction.DiscardInstruction;
-import de.blazemcworld.fireflow.compiler.instruction.InstanceMethodInstruction;
+import de.blazemcworld.fireflow.compiler.instruction.Instruction;
 import de.blazemcworld.fireflow.compiler.instruction.MultiInstruction;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import de.blazemcworld.fireflow.node.Node;
 import de.blazemcworld.fireflow.node.NodeInput;
 import de.blazemcworld.fireflow.node.NodeOutput;
@@ -11,11 +12,14 @@ import de.blazemcworld.fireflow.value.AllValues;
 import de.blazemcworld.fireflow.value.SignalValue;
 import de.blazemcworld.fireflow.value.TextValue;
 import de.blazemcworld.fireflow.value.Value;
-import it.unimi.dsi.fastutil.Pair;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
 
 import java.util.List;
-import java.util.Map;
 
 public class SetVariableNode extends Node {
 
@@ -32,13 +36,39 @@ public class SetVariableNode extends Node {
         NodeInput value = input("Value", type);
         NodeOutput next = output("Next", SignalValue.INSTANCE);
 
+        Instruction store = scope.getStore();
+        Instruction wrapped = type.wrapPrimitive(value);
         signal.setInstruction(new MultiInstruction(type.getType(),
-                new DiscardInstruction(new InstanceMethodInstruction(Map.class, scope.getStore(), "put",
-                        Type.getType(Object.class), List.of(
-                            Pair.of(Type.getType(Object.class), name),
-                            Pair.of(Type.getType(Object.class), type.wrapPrimitive(value))
-                        )
-                )),
+                new Instruction() {
+                    @Override
+                    public void prepare(NodeCompiler ctx) {
+                        ctx.prepare(store);
+                        ctx.prepare(name);
+                        ctx.prepare(wrapped);
+                    }
+
+                    @Override
+                    public InsnList compile(NodeCompiler ctx, int usedVars) {
+                        InsnList out = new InsnList();
+                        out.add(ctx.compile(store, usedVars));
+                        if (name.getInset() instanceof String constant) {
+                            out.add(new LdcInsnNode(scope.getNames(ctx).slot(constant)));
+                            out.add(ctx.compile(wrapped, usedVars));
+                            out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(VariableStore.class), "set", "(ILjava/lang/Object;)V"));
+                        } else {
+                            out.add(ctx.compile(name, usedVars));
+                            out.add(ctx.compile(wrapped, usedVars));
+                            out.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, Type.getInternalName(VariableStore.class), "put", "(Ljava/lang/String;Ljava/lang/Object;)Ljava/lang/Object;"));
+                            out.add(new InsnNode(Opcodes.POP));
+                        }
+                        return out;
+                    }
+
+                    @Override
+                    public Type returnType() {
+                        return Type.VOID_TYPE;
+                    }
+                },
                 next
         ));
     }
@@ -1,16 +1,16 @@
 package de.blazemcworld.fireflow.node.impl.variable;
 
 import de.blazemcworld.fireflow.compiler.CompiledNode;
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.instruction.GetInstanceFieldInstruction;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
 import de.blazemcworld.fireflow.compiler.instruction.RawInstruction;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.VarInsnNode;
 
-import java.util.Map;
-
 public class SpaceVariableScope implements VariableScope {
     public static final SpaceVariableScope INSTANCE = new SpaceVariableScope();
 
@@ -29,7 +29,12 @@ public class SpaceVariableScope implements VariableScope {
                         new RawInstruction(Type.getType(CompiledNode.class), new VarInsnNode(Opcodes.ALOAD, 0)),
                         "evaluator", Type.getType(CodeEvaluator.class)
                 ),
-                "variables", Type.getType(Map.class)
+                "variables", Type.getType(VariableStore.class)
         );
     }
+
+    @Override
+    public VariableStore.Names getNames(NodeCompiler ctx) {
+        return ctx.evaluator.variables.names();
+    }
 }
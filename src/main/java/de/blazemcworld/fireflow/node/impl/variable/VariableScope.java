@@ -1,8 +1,11 @@
 package de.blazemcworld.fireflow.node.impl.variable;
 
+import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 
 public interface VariableScope {
     String getName();
     Instruction getStore();
+    VariableStore.Names getNames(NodeCompiler ctx);
 }
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.vector;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -20,6 +21,7 @@ public class CreateVectorNode extends Node {
         loadJava(CreateVectorNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Vector")
     private static Vec pack() {
         return new Vec(x(), y(), z());
@@ -1,6 +1,7 @@
 package de.blazemcworld.fireflow.node.impl.vector;
 
 import de.blazemcworld.fireflow.node.Node;
+import de.blazemcworld.fireflow.node.annotation.FlowPure;
 import de.blazemcworld.fireflow.node.annotation.FlowValueInput;
 import de.blazemcworld.fireflow.node.annotation.FlowValueOutput;
 import de.blazemcworld.fireflow.value.NumberValue;
@@ -22,6 +23,7 @@ public class VectorToPositionNode extends Node {
         loadJava(VectorToPositionNode.class);
     }
 
+    @FlowPure
     @FlowValueOutput("Position")
     private static Pos convert() {
         Vec v = vector();
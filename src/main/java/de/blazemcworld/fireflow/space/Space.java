@@ -1,8 +1,11 @@
 package de.blazemcworld.fireflow.space;
 
 import de.blazemcworld.fireflow.FireFlow;
+import de.blazemcworld.fireflow.compiler.CompiledStruct;
 import de.blazemcworld.fireflow.editor.CodeEditor;
+import de.blazemcworld.fireflow.editor.CodeSnapshot;
 import de.blazemcworld.fireflow.evaluation.CodeEvaluator;
+import de.blazemcworld.fireflow.evaluation.VariableStore;
 import de.blazemcworld.fireflow.value.MessageValue;
 import de.blazemcworld.fireflow.value.PlayerValue;
 import it.unimi.dsi.fastutil.Pair;
@@ -27,9 +30,17 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Space {
 
+    public static final ExecutorService COMPILER = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            Thread.ofPlatform().daemon().name("space-compiler-", 0).factory()
+    );
+
     public final InstanceContainer play;
     public final InstanceContainer code;
     public final Task saveTask;
@@ -37,7 +48,9 @@ public class Space {
     private boolean isUnused = false;
     private final CodeEditor editor;
     public CodeEvaluator evaluator;
-    public Map<String, Object> variables = new HashMap<>();
+    private CompletableFuture<CodeEvaluator> compiling = CompletableFuture.completedFuture(null);
+    private int generation = 0;
+    public VariableStore variables = new VariableStore();
 
     public Space(SpaceInfo info) {
         this.info = info;
@@ -81,7 +94,8 @@ public class Space {
 
         readVariables();
         editor = new CodeEditor(this);
-        evaluator = new CodeEvaluator(this, editor);
+        evaluator = new CodeEvaluator(this, editor.snapshot());
+        evaluator.start();
 
         saveTask = MinecraftServer.getSchedulerManager().scheduleTask(() -> {
             if (isUnused) {
@@ -146,6 +160,14 @@ public class Space {
                     buffer.write(NetworkBuffer.INT, objects.indexOf(entry.getKey()));
                     buffer.write(NetworkBuffer.INT, objects.indexOf(entry.getValue()));
                 }
+            } else if (obj instanceof CompiledStruct struct) {
+                buffer.write(NetworkBuffer.BYTE, (byte) 9);
+                buffer.write(NetworkBuffer.STRING, struct.structName());
+                Object[] values = struct.values();
+                buffer.write(NetworkBuffer.INT, values.length);
+                for (Object v : values) {
+                    buffer.write(NetworkBuffer.INT, objects.indexOf(v));
+                }
             }
         }
 
@@ -174,6 +196,9 @@ public class Space {
                 collectObjects(out, (Collection<Object>) m.keySet());
                 collectObjects(out, (Collection<Object>) m.values());
             }
+            if (each instanceof CompiledStruct struct) {
+                collectObjects(out, Arrays.asList(struct.values()));
+            }
         }
     }
 
@@ -248,6 +273,21 @@ public class Space {
                     });
                     objects.add(map);
                 }
+                case 9 -> {
+                    String name = buffer.read(NetworkBuffer.STRING);
+                    int size = buffer.read(NetworkBuffer.INT);
+                    Object[] values = new Object[size];
+                    int[] ids = new int[size];
+                    for (int j = 0; j < size; j++) {
+                        ids[j] = buffer.read(NetworkBuffer.INT);
+                    }
+                    connect.add(() -> {
+                        for (int j = 0; j < size; j++) {
+                            values[j] = objects.get(ids[j]);
+                        }
+                    });
+                    objects.add(new CompiledStruct.Saved(name, values));
+                }
             }
         }
 
@@ -262,8 +302,10 @@ public class Space {
     }
 
     public void unregister() {
+        generation++;
         saveTask.cancel();
         save();
+        evaluator.stop(true);
 
         MinecraftServer.getInstanceManager().unregisterInstance(play);
         MinecraftServer.getInstanceManager().unregisterInstance(code);
@@ -271,12 +313,38 @@ public class Space {
 
     private void save() {
         play.saveChunksToStorage();
-        saveVariables();
+        evaluator.execute(this::saveVariables);
         editor.save();
     }
 
-    public void reload() {
-        evaluator.stop(true);
-        evaluator = new CodeEvaluator(this, editor);
+    public CompletableFuture<Void> reload() {
+        CodeSnapshot snapshot = editor.snapshot();
+        int id = ++generation;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        compiling = compiling.exceptionally(err -> null).thenApplyAsync(previous -> new CodeEvaluator(this, snapshot), COMPILER);
+        compiling.whenComplete((next, err) -> MinecraftServer.getSchedulerManager().scheduleNextTick(() -> {
+            if (err != null) {
+                FireFlow.LOGGER.error("Failed to compile space {}!", info.id, err);
+                done.completeExceptionally(err);
+                return;
+            }
+            if (id != generation) {
+                swap(id, next, done);
+                return;
+            }
+            evaluator.stop(true).thenRun(() -> MinecraftServer.getSchedulerManager().scheduleNextTick(() -> swap(id, next, done)));
+        }));
+        return done;
+    }
+
+    private void swap(int id, CodeEvaluator next, CompletableFuture<Void> done) {
+        if (id != generation) {
+            next.stop(true);
+            done.complete(null);
+            return;
+        }
+        next.start();
+        evaluator = next;
+        done.complete(null);
     }
 }
@@ -28,6 +28,11 @@ public class Config {
                 }
                 if (store.limits.spacesPerPlayer <= 0) FireFlow.LOGGER.warn("'limits.spacesPerPlayer' does not allow creating new spaces!");
                 if (store.limits.totalSpaces <= 0) FireFlow.LOGGER.warn("'limits.totalSpaces' does not allow creating new spaces!");
+                if (store.limits.contextPool < 0) FireFlow.LOGGER.warn("Invalid 'limits.contextPool' in config.json!");
+                if (store.limits.cpuCheckInterval < 0) FireFlow.LOGGER.warn("Invalid 'limits.cpuCheckInterval' in config.json!");
+                if (store.limits.cpuBurst < 0) FireFlow.LOGGER.warn("Invalid 'limits.cpuBurst' in config.json!");
+                if (store.limits.cpuGlobalPerTick <= 0) FireFlow.LOGGER.warn("'limits.cpuGlobalPerTick' is not set, spaces are only limited by 'limits.cpuPerTick'!");
+                if (store.limits.memoryPerSpace <= 0) FireFlow.LOGGER.warn("'limits.memoryPerSpace' is not set, space memory is unlimited!");
             }
 
             if (store.network == null) {
@@ -49,7 +54,7 @@ public class Config {
     public record Store(String motd, int port, LimitsConfig limits, NetworkConfig network) {
     }
 
-    public record LimitsConfig(long cpuPerTick, int spacesPerPlayer, int totalSpaces) {
+    public record LimitsConfig(long cpuPerTick, int spacesPerPlayer, int totalSpaces, int contextPool, int cpuCheckInterval, boolean offTick, int cpuBurst, long memoryPerSpace, long cpuGlobalPerTick) {
     }
 
     public record NetworkConfig(boolean enabled, int port, List<String> sources, String mcHost) {
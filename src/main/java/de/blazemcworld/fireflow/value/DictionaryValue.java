@@ -27,7 +27,7 @@ public class DictionaryValue implements Value {
         this.valueType = valueType;
     }
 
-    public static DictionaryValue get(Value keyType, Value valueType) {
+    public static synchronized DictionaryValue get(Value keyType, Value valueType) {
         return cache.computeIfAbsent(keyType, k -> new WeakHashMap<>()).computeIfAbsent(valueType, v -> new DictionaryValue(keyType, valueType));
     }
 
@@ -22,7 +22,7 @@ public class ListValue implements Value {
         this.type = type;
     }
 
-    public static ListValue get(Value type) {
+    public static synchronized ListValue get(Value type) {
         return cache.computeIfAbsent(type, ListValue::new);
     }
 
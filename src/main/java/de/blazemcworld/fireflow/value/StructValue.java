@@ -1,5 +1,6 @@
 package de.blazemcworld.fireflow.value;
 
+import de.blazemcworld.fireflow.compiler.CompiledClasses;
 import de.blazemcworld.fireflow.compiler.NodeCompiler;
 import de.blazemcworld.fireflow.compiler.instruction.Instruction;
 import de.blazemcworld.fireflow.compiler.instruction.MultiInstruction;
@@ -11,10 +12,13 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HexFormat;
 
 public class StructValue implements Value {
 
+    private static final String CLASS_PREFIX = CompiledClasses.packageName() + "/Struct$";
     public final static StructValue UNKNOWN = new StructValue("UNKNOWN", new ArrayList<>());
 
     public final ArrayList<Field> fields;
@@ -37,15 +41,28 @@ public class StructValue implements Value {
 
     @Override
     public Type getType() {
-        return Type.getType("[Ljava/lang/Object;");
+        return Type.getObjectType(className());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String className() {
+        return CLASS_PREFIX + HexFormat.of().formatHex(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static boolean isStructClass(String internalName) {
+        return internalName.startsWith(CLASS_PREFIX);
     }
 
     @Override
     public InsnList compile(NodeCompiler ctx, Object inset) {
         if (inset != null) throw new IllegalStateException("Struct values can't be inset!");
         InsnList out = new InsnList();
-        out.add(new IntInsnNode(Opcodes.BIPUSH, fields.size()));
-        out.add(new TypeInsnNode(Opcodes.ANEWARRAY, "java/lang/Object"));
+        out.add(new TypeInsnNode(Opcodes.NEW, className()));
+        out.add(new InsnNode(Opcodes.DUP));
+        out.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, className(), "<init>", "()V"));
         return out;
     }
 
@@ -57,14 +74,15 @@ public class StructValue implements Value {
                 value,
                 new RawInstruction(getType(),
                         new InsnNode(Opcodes.DUP),
-                        new TypeInsnNode(Opcodes.INSTANCEOF, "[Ljava/lang/Object;"),
+                        new TypeInsnNode(Opcodes.INSTANCEOF, className()),
                         new JumpInsnNode(Opcodes.IFGT, cast),
                         new InsnNode(Opcodes.POP),
-                        new IntInsnNode(Opcodes.BIPUSH, fields.size()),
-                        new TypeInsnNode(Opcodes.ANEWARRAY, "java/lang/Object"),
+                        new TypeInsnNode(Opcodes.NEW, className()),
+                        new InsnNode(Opcodes.DUP),
+                        new MethodInsnNode(Opcodes.INVOKESPECIAL, className(), "<init>", "()V"),
                         new JumpInsnNode(Opcodes.GOTO, end),
                         cast,
-                        new TypeInsnNode(Opcodes.CHECKCAST, "[Ljava/lang/Object;"),
+                        new TypeInsnNode(Opcodes.CHECKCAST, className()),
                         end
                 )
         );